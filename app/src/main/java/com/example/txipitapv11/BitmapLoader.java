@@ -0,0 +1,154 @@
+package com.example.txipitapv11;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.RequiresApi;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Clase auxiliar que carga las imágenes del juego (pulpo y logo) a la medida de su vista.
+ *
+ * Las imágenes se decodifican en un hilo secundario reduciendo su resolución al tamaño
+ * en píxeles de la ImageView, y se guardan en una caché limitada por memoria que vive
+ * mientras viva el proceso, de modo que una rotación no vuelve a decodificar nada.
+ */
+public class BitmapLoader {
+
+    // Caché de bitmaps decodificados, limitada a 1/8 de la memoria disponible (en KB)
+    private static final LruCache<String, Bitmap> cache =
+            new LruCache<String, Bitmap>((int) (Runtime.getRuntime().maxMemory() / 1024 / 8)) {
+                @Override
+                protected int sizeOf(String key, Bitmap bitmap) {
+                    return bitmap.getAllocationByteCount() / 1024;
+                }
+            };
+
+    // Hilo único para decodificar sin bloquear el hilo principal
+    private static final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Carga un recurso en la ImageView al tamaño de la propia vista.
+     * Si el bitmap ya está en caché se asigna inmediatamente; si no, se decodifica en segundo plano.
+     *
+     * @param imageView Vista destino (debe tener un tamaño fijo en el layout)
+     * @param resId     Identificador del recurso drawable
+     * @param opaque    true si la imagen no tiene transparencia y puede usar RGB_565
+     */
+    public static void load(final ImageView imageView, final int resId, final boolean opaque) {
+        final int targetWidth = imageView.getLayoutParams().width;
+        final int targetHeight = imageView.getLayoutParams().height;
+        final String key = resId + ":" + targetWidth + "x" + targetHeight;
+
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            imageView.setImageBitmap(cached);
+            return;
+        }
+
+        // Marcar la vista para ignorar resultados de cargas anteriores que lleguen tarde
+        imageView.setTag(key);
+        final Resources resources = imageView.getResources();
+        decodeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = decode(resources, resId, targetWidth, targetHeight, opaque);
+                if (bitmap == null) {
+                    return;
+                }
+                cache.put(key, bitmap);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (key.equals(imageView.getTag())) {
+                            imageView.setImageBitmap(bitmap);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Decodifica un recurso al tamaño indicado.
+     * En Android 9+ usa ImageDecoder con tamaño destino (y bitmaps de hardware);
+     * en versiones anteriores usa BitmapFactory con inSampleSize.
+     */
+    private static Bitmap decode(Resources resources, int resId, int targetWidth, int targetHeight, boolean opaque) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            return decodeWithImageDecoder(resources, resId, targetWidth, targetHeight, opaque);
+        }
+
+        // Leer solo las dimensiones para calcular el factor de reducción
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        options.inScaled = false;
+        BitmapFactory.decodeResource(resources, resId, options);
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        options.inJustDecodeBounds = false;
+        if (opaque) {
+            options.inPreferredConfig = Bitmap.Config.RGB_565;
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            options.inPreferredConfig = Bitmap.Config.HARDWARE;
+        }
+        return BitmapFactory.decodeResource(resources, resId, options);
+    }
+
+    /**
+     * Decodifica con ImageDecoder ajustando directamente al tamaño destino.
+     * La imagen se escala para caber en la vista sin deformarse (como FIT_CENTER) y nunca se amplía.
+     * Por defecto ImageDecoder asigna un bitmap de hardware, que no ocupa memoria del heap.
+     */
+    @RequiresApi(Build.VERSION_CODES.P)
+    private static Bitmap decodeWithImageDecoder(Resources resources, int resId, final int targetWidth,
+                                                 final int targetHeight, final boolean opaque) {
+        try {
+            ImageDecoder.Source source = ImageDecoder.createSource(resources, resId);
+            return ImageDecoder.decodeBitmap(source, new ImageDecoder.OnHeaderDecodedListener() {
+                @Override
+                public void onHeaderDecoded(ImageDecoder decoder, ImageDecoder.ImageInfo info, ImageDecoder.Source src) {
+                    int width = info.getSize().getWidth();
+                    int height = info.getSize().getHeight();
+                    if (targetWidth > 0 && targetHeight > 0) {
+                        double scale = Math.min(1.0, Math.min((double) targetWidth / width,
+                                (double) targetHeight / height));
+                        decoder.setTargetSize(Math.max(1, (int) Math.round(width * scale)),
+                                Math.max(1, (int) Math.round(height * scale)));
+                    }
+                    if (opaque) {
+                        decoder.setMemorySizePolicy(ImageDecoder.MEMORY_POLICY_LOW_RAM);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calcula la mayor potencia de 2 que mantiene la imagen igual o mayor que el tamaño destino.
+     * @return Factor de reducción (1 si no hace falta reducir)
+     */
+    static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int inSampleSize = 1;
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return inSampleSize;
+        }
+        while ((width / (inSampleSize * 2)) >= targetWidth && (height / (inSampleSize * 2)) >= targetHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+}
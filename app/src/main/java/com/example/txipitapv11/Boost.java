@@ -0,0 +1,39 @@
+package com.example.txipitapv11;
+
+/**
+ * Potenciador temporal activo
+ *
+ * Multiplica la tinta automática o el poder de clic durante un tiempo limitado.
+ * Varios potenciadores pueden acumularse y cada uno vence por su cuenta en la
+ * rueda de temporizadores del motor.
+ */
+public class Boost extends TimerWheel.Timer {
+
+    /**
+     * Enumeración de los efectos que puede tener un potenciador
+     */
+    public enum Kind {
+        INK,    // Multiplica la tinta automática
+        TAP     // Multiplica el poder de clic
+    }
+
+    private final Kind kind;        // Efecto del potenciador
+    private final double factor;    // Multiplicador aplicado mientras está activo
+
+    // Enlaces en la lista de potenciadores activos del motor (añadir y quitar en O(1))
+    Boost prevActive;
+    Boost nextActive;
+
+    public Boost(Kind kind, double factor) {
+        this.kind = kind;
+        this.factor = factor;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+}
@@ -5,27 +5,67 @@ import android.animation.AnimatorListenerAdapter;
 import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
 import android.content.Context;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 /**
  * Clase auxiliar que proporciona una animación visual de clics en pantalla.
  * Muestra un texto animado al hacer clic que se desplaza hacia arriba y se desvanece.
+ *
+ * Los textos y sus animaciones se crean una sola vez y se reutilizan en un anillo
+ * de tamaño fijo: por muy rápido que se toque, el contenedor nunca tiene más de
+ * {@link #MAX_FLOATING_TEXTS} textos flotantes. Si todos están en uso, el más antiguo
+ * se reinicia con el nuevo valor.
  */
 public class ClickAnimationHelper {
 
+    // Textos flotantes como máximo en pantalla
+    public static final int MAX_FLOATING_TEXTS = 8;
+
+    private final Context context;
+    private final ViewGroup parent;
+    private final TextView[] texts = new TextView[MAX_FLOATING_TEXTS];
+    private final AnimatorSet[] animators = new AnimatorSet[MAX_FLOATING_TEXTS];
+    private int next = 0;                   // Posición del anillo que se usará a continuación
+
+    /**
+     * @param context Contexto para crear los textos
+     * @param parent  Contenedor donde se muestran los textos
+     */
+    public ClickAnimationHelper(Context context, ViewGroup parent) {
+        this.context = context;
+        this.parent = parent;
+    }
+
     /**
-     * Método que crea y ejecuta una animación al hacer clic.
-     * Muestra un texto con un valor numérico que sube y se desvanece, luego se elimina de la vista.
+     * Método que ejecuta una animación al hacer clic.
+     * Muestra un texto con un valor numérico que sube y se desvanece, luego se oculta hasta reutilizarse.
      *
      **/
-    public static void createClickAnimation(Context context, ViewGroup parent, float x, float y, String value) {
+    public void createClickAnimation(float x, float y, String value) {
+        int slot = next;
+        next = (next + 1) % MAX_FLOATING_TEXTS;
+        if (texts[slot] == null) {
+            createSlot(slot);
+        }
 
-        // Crear y configurar el TextView que se animará.
-        TextView animatedText = new TextView(context);
+        // Cancelar la animación anterior del texto si sigue en marcha y reiniciarla con el nuevo valor
+        TextView animatedText = texts[slot];
+        animators[slot].cancel();
         animatedText.setText("+" + value);
+        animatedText.setVisibility(View.VISIBLE);
+        animators[slot].start();
+    }
+
+    /**
+     * Crea y configura el TextView y la animación de una posición del anillo.
+     */
+    private void createSlot(int slot) {
+        final TextView animatedText = new TextView(context);
         animatedText.setTextSize(25);
         animatedText.setTextColor(context.getResources().getColor(R.color.white));
+        animatedText.setVisibility(View.GONE);
 
         parent.addView(animatedText);
 
@@ -34,25 +74,25 @@ public class ClickAnimationHelper {
         animatedText.setY(400);
 
         // Animación de desplazamiento vertical hacia arriba
-        ObjectAnimator moveUp = ObjectAnimator.ofFloat(animatedText, "translationY", 700, 470);
+        ObjectAnimator moveUp = ObjectAnimator.ofFloat(animatedText, View.TRANSLATION_Y, 700, 470);
 
         // Animación de desvanecimiento del texto
-        ObjectAnimator fadeOut = ObjectAnimator.ofFloat(animatedText, "alpha", 1f, 0f);
+        ObjectAnimator fadeOut = ObjectAnimator.ofFloat(animatedText, View.ALPHA, 1f, 0f);
 
         // Combinar ambas animaciones en un conjunto
         AnimatorSet animatorSet = new AnimatorSet();
         animatorSet.playTogether(moveUp, fadeOut);
         animatorSet.setDuration(1000);
 
-        // Listener para eliminar el TextView del contenedor una vez finalizada la animación
+        // Listener para ocultar el TextView una vez finalizada la animación
         animatorSet.addListener(new AnimatorListenerAdapter() {
             @Override
             public void onAnimationEnd(Animator animation) {
-                parent.removeView(animatedText);
+                animatedText.setVisibility(View.GONE);
             }
         });
 
-        // Iniciar la animación
-        animatorSet.start();
+        texts[slot] = animatedText;
+        animators[slot] = animatorSet;
     }
 }
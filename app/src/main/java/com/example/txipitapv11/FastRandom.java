@@ -0,0 +1,47 @@
+package com.example.txipitapv11;
+
+/**
+ * Generador pseudoaleatorio rápido con semilla (xorshift64*)
+ *
+ * Su estado es un único long, así que se guarda y restaura junto a la partida
+ * y una misma semilla da siempre la misma secuencia. No reserva memoria ni se
+ * sincroniza, a diferencia de Math.random().
+ */
+public class FastRandom {
+
+    private long state;
+
+    /**
+     * @param seed Semilla; 0 se sustituye por una constante porque xorshift no sale del 0
+     */
+    public FastRandom(long seed) {
+        setState(seed);
+    }
+
+    /**
+     * Obtiene el siguiente valor de 64 bits
+     */
+    public long nextLong() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Obtiene un valor uniforme en [0, 1) con 53 bits de precisión
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state != 0 ? state : 0x9E3779B97F4A7C15L;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.txipitapv11;
+
+/**
+ * Fuente de tiempo del juego en milisegundos.
+ *
+ * En la aplicación se usa un reloj monotónico del sistema; en la reproducción
+ * de partidas grabadas se usa un reloj manual que avanza evento a evento.
+ */
+public interface GameClock {
+
+    /**
+     * Obtiene el instante actual
+     * @return Tiempo en milisegundos (monotónico)
+     */
+    long now();
+}
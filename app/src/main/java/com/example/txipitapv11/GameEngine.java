@@ -0,0 +1,856 @@
+package com.example.txipitapv11;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lógica del juego independiente de la interfaz
+ *
+ * Contiene el estado de la partida (tinta, mejoras, generadores, potenciadores, prestigio y
+ * meta-mejoras) y
+ * las acciones que lo modifican: tocar el pulpo, comprar mejoras, prestigiar, el tick
+ * de producción automática y el avance del tiempo sin jugar. No depende de Android,
+ * por lo que puede ejecutarse sin interfaz para reproducir partidas grabadas o en pruebas.
+ */
+public class GameEngine {
+
+    // Duración de un tick de producción automática
+    public static final long TICK_MILLIS = 1000;
+
+    // Combo: cada 10 toques seguidos suman un 10% al clic, hasta duplicarlo
+    public static final long COMBO_TIMEOUT_MILLIS = 1000; // Pausa máxima entre toques para mantener el combo
+    private static final int COMBO_STEP_TAPS = 10;
+    private static final double COMBO_BONUS_PER_STEP = 0.1;
+    private static final int MAX_COMBO_STEPS = 10;
+
+    // Críticos: un 5% de los toques valen cinco veces más
+    private static final double CRIT_CHANCE = 0.05;
+    public static final double CRIT_MULTIPLIER = 5.0;
+
+    // Variables del estado del juego
+    private double points = 0;              // Puntos actuales (tinta)
+    private double pointsPerClick = 1;      // Puntos ganados por cada clic
+    private double pointsPerSecond = 0;     // Puntos ganados automáticamente por segundo
+    private int prestigeLevel = 0;          // Nivel de prestigio actual
+    private double prestigeMultiplier = 1.0; // Multiplicador de puntos por prestigio
+    private double prestigeRequirement = 5000; // Puntos necesarios para prestigiar
+
+    // Sistema de mejoras
+    private List<Upgrade> upgrades;         // Lista de mejoras disponibles
+
+    // Sistema de meta-mejoras (se conservan entre prestigios)
+    private long pearls = 0;                // Perlas disponibles, ganadas al prestigiar
+    private final MetaTree metaTree = new MetaTree(); // Árbol de meta-mejoras compradas
+    private double metaTapMultiplier = 1.0;        // Modificadores precalculados del árbol
+    private double metaProductionMultiplier = 1.0;
+    private double metaCostMultiplier = 1.0;
+
+    // Cadena de generadores por niveles (el nivel N produce generadores del nivel N-1)
+    private final GeneratorChain generators = GeneratorChain.createDefault();
+
+    // Sistema de potenciadores temporales
+    private long gameTime = 0;              // Tiempo de juego transcurrido en milisegundos
+    private TimerWheel boostWheel = new TimerWheel(0); // Vencimientos de los potenciadores
+    private Boost firstBoost;               // Potenciadores activos, en orden de activación
+    private Boost lastBoost;
+    private int activeBoostCount = 0;
+    private double inkBoostMultiplier = 1.0; // Producto de los potenciadores de tinta activos
+    private double tapBoostMultiplier = 1.0; // Producto de los potenciadores de clic activos
+    private long productionCursor;          // Instante hasta el que ya se ha sumado la producción
+    private long tickStartClock;            // Hora del reloj en que empezó el tick en curso
+    private long tickProducedMs;            // Parte del tick en curso ya producida por adelantado
+
+    // Al vencer un potenciador se suma la producción hasta ese instante y se recalcula el multiplicador
+    private final TimerWheel.ExpiryListener boostExpiryListener = new TimerWheel.ExpiryListener() {
+        @Override
+        public void onExpired(TimerWheel.Timer timer, long deadline) {
+            addProduction(deadline - productionCursor);
+            productionCursor = deadline;
+            unlinkBoost((Boost) timer);
+            recomputeBoostMultipliers();
+        }
+    };
+
+    // Sistema de combos y críticos
+    private final TapRateMeter tapMeter = new TapRateMeter(); // Toques por segundo (solo para mostrar)
+    private final FastRandom random;        // Tiradas de crítico; su estado forma parte de la partida
+    private int comboStreak = 0;            // Toques seguidos sin pausas largas
+    private long lastTapTime;               // Instante del último toque
+    private boolean lastTapCritical = false; // true si el último toque fue crítico
+
+    // Grabación de entradas (opcional)
+    private final GameClock clock;
+    private InputRecorder recorder;
+
+    /**
+     * Constructor del motor con el estado inicial de una partida nueva
+     * @param clock Reloj usado para marcar el tiempo de las entradas grabadas
+     */
+    public GameEngine(GameClock clock) {
+        this(clock, System.nanoTime());
+    }
+
+    /**
+     * Constructor del motor con una semilla fija para los críticos
+     * @param clock Reloj usado para los toques y para marcar el tiempo de las entradas grabadas
+     * @param seed  Semilla del generador de críticos
+     */
+    public GameEngine(GameClock clock, long seed) {
+        this.clock = clock;
+        this.random = new FastRandom(seed);
+        this.upgrades = createDefaultUpgrades();
+        this.tickStartClock = clock.now();
+    }
+
+    /**
+     * Crea la lista de mejoras disponibles en el juego
+     * Cada mejora tiene un nombre, coste, factor de crecimiento, tipo y descripción
+     * @return Lista nueva de mejoras a nivel 0
+     */
+    public static List<Upgrade> createDefaultUpgrades() {
+        List<Upgrade> upgrades = new ArrayList<>();
+
+        // Mejoras de tipo CLICK (aumentan los puntos por clic)
+        upgrades.add(new Upgrade("Tinta Mejorada", 10, 1.2, Upgrade.Type.CLICK, "Aumenta el poder de clic en 1"));
+        upgrades.add(new Upgrade("Super Tinta Mejorada", 100, 1.5, Upgrade.Type.CLICK, "Aumenta mucho el poder de clic en 5"));
+
+        // Mejoras de tipo AUTO (generan puntos automáticamente)
+        upgrades.add(new Upgrade("Tinta Automática", 50, 1.3, Upgrade.Type.AUTO, "Añade 1 clic por segundo"));
+        upgrades.add(new Upgrade("M4-Tintosa Automatica", 200, 1.4, Upgrade.Type.AUTO, "Añade 5 clics por segundo"));
+        upgrades.add(new Upgrade("Fábrica de Tinta", 1000, 1.6, Upgrade.Type.AUTO, "Añade 10 clics por segundo"));
+
+        // Mejoras de tipo MULTIPLIER (multiplican todos los puntos)
+        upgrades.add(new Upgrade("Tinta Multiplicadora", 500, 2.0, Upgrade.Type.MULTIPLIER, "Multiplica todos tus puntos por 1.5"));
+
+        // Mejoras de tipo BOOST (potenciadores temporales acumulables)
+        upgrades.add(new Upgrade("Chorro de Tinta", 300, 1.5, Upgrade.Type.BOOST, "Duplica la tinta automática durante 30 segundos"));
+        upgrades.add(new Upgrade("Tentáculos Frenéticos", 150, 1.5, Upgrade.Type.BOOST, "Multiplica por 7 el poder de clic durante 10 segundos"));
+
+        // Mejoras de tipo GENERATOR (cada nivel produce generadores del nivel anterior)
+        upgrades.add(new Upgrade("Txipirón Entintador", 150, 1.15, Upgrade.Type.GENERATOR, "Produce 2 de tinta por segundo"));
+        upgrades.add(new Upgrade("Vivero de Txipirones", 2000, 1.18, Upgrade.Type.GENERATOR, "Cría 0,5 Txipirones Entintadores por segundo"));
+        upgrades.add(new Upgrade("Arrecife de Viveros", 30000, 1.2, Upgrade.Type.GENERATOR, "Crea 0,25 Viveros de Txipirones por segundo"));
+        upgrades.add(new Upgrade("Banco de Arrecifes", 500000, 1.22, Upgrade.Type.GENERATOR, "Forma 0,125 Arrecifes de Viveros por segundo"));
+        upgrades.add(new Upgrade("Mar Interior", 8000000, 1.25, Upgrade.Type.GENERATOR, "Forma 0,0625 Bancos de Arrecifes por segundo"));
+        upgrades.add(new Upgrade("Océano de Tinta", 150000000, 1.28, Upgrade.Type.GENERATOR, "Llena 0,03125 Mares Interiores por segundo"));
+        return upgrades;
+    }
+
+    /**
+     * Restaura el estado guardado de una partida
+     * Si la lista de mejoras está vacía se usan las mejoras por defecto, y si
+     * viene de una versión anterior se le añaden las mejoras que le falten
+     */
+    public void restoreState(double points, double pointsPerClick, double pointsPerSecond, int prestigeLevel,
+                             double prestigeMultiplier, double prestigeRequirement, List<Upgrade> upgrades) {
+        this.points = points;
+        this.pointsPerClick = pointsPerClick;
+        this.pointsPerSecond = pointsPerSecond;
+        this.prestigeLevel = prestigeLevel;
+        this.prestigeMultiplier = prestigeMultiplier;
+        this.prestigeRequirement = prestigeRequirement;
+        this.upgrades = (upgrades == null || upgrades.isEmpty()) ? createDefaultUpgrades() : upgrades;
+        addMissingUpgrades(this.upgrades);
+        generators.reset();
+        clearBoosts();
+    }
+
+    /**
+     * Añade al final de la lista las mejoras por defecto que no estén en ella
+     * @param upgrades Lista de mejoras guardada
+     */
+    private static void addMissingUpgrades(List<Upgrade> upgrades) {
+        for (Upgrade defaultUpgrade : createDefaultUpgrades()) {
+            boolean found = false;
+            for (Upgrade upgrade : upgrades) {
+                if (upgrade.getName().equals(defaultUpgrade.getName())) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                upgrades.add(defaultUpgrade);
+            }
+        }
+    }
+
+    /**
+     * Restaura las perlas y las meta-mejoras guardadas
+     * @param pearls     Perlas disponibles
+     * @param metaLevels Nivel de cada nodo del árbol
+     */
+    public void restoreMeta(long pearls, int[] metaLevels) {
+        this.pearls = pearls;
+        metaTree.setLevels(metaLevels);
+        applyMetaModifiers();
+    }
+
+    /**
+     * Copia los modificadores precalculados del árbol en las constantes usadas por toques y ticks
+     */
+    private void applyMetaModifiers() {
+        metaTapMultiplier = metaTree.getModifier(MetaTree.MOD_TAP);
+        metaProductionMultiplier = metaTree.getModifier(MetaTree.MOD_PRODUCTION);
+        metaCostMultiplier = metaTree.getModifier(MetaTree.MOD_COST);
+    }
+
+    /**
+     * Activa o desactiva la grabación de entradas
+     * @param recorder Grabador que recibirá las entradas, o null para no grabar
+     */
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+        if (recorder != null) {
+            recorder.begin(this);
+        }
+    }
+
+    /**
+     * Registra una entrada en el grabador, si hay uno activo
+     * Cada entrada lee el reloj una sola vez y usa ese mismo instante para grabarse y para
+     * su lógica; así la reproducción, que fija el reloj al instante grabado, ve el mismo valor
+     * @param now Instante de la entrada, leído una vez por el método que la procesa
+     */
+    private void record(int type, long arg, long now) {
+        if (recorder != null) {
+            recorder.record(now, type, arg);
+        }
+    }
+
+    /**
+     * Procesa un toque sobre el pulpo
+     * @return Poder de clic aplicado (antes del multiplicador de prestigio)
+     */
+    public double tap() {
+        long now = clock.now();
+        record(InputRecorder.TAP, 0, now);
+
+        // Mantener el combo si el toque llega antes de que caduque
+        if (comboStreak > 0 && now - lastTapTime > COMBO_TIMEOUT_MILLIS) {
+            comboStreak = 0;
+        }
+        comboStreak++;
+        lastTapTime = now;
+        tapMeter.record(now);
+
+        // Tirada de crítico con el generador de la partida
+        lastTapCritical = random.nextDouble() < CRIT_CHANCE;
+
+        // Añadir puntos con el multiplicador de prestigio, los potenciadores, las meta-mejoras de clic y el combo
+        double clickPower = pointsPerClick * tapBoostMultiplier * metaTapMultiplier * comboMultiplier(comboStreak);
+        if (lastTapCritical) {
+            clickPower *= CRIT_MULTIPLIER;
+        }
+        points += clickPower * prestigeMultiplier;
+        return clickPower;
+    }
+
+    /**
+     * Calcula el multiplicador de combo para una racha de toques
+     * @param streak Toques seguidos
+     * @return Multiplicador (1.0 sin combo)
+     */
+    private static double comboMultiplier(int streak) {
+        return 1.0 + COMBO_BONUS_PER_STEP * Math.min(streak / COMBO_STEP_TAPS, MAX_COMBO_STEPS);
+    }
+
+    /**
+     * Compra una mejora si el jugador tiene suficientes puntos
+     * @param index Posición de la mejora en la lista
+     * @return true si la compra se realizó
+     */
+    public boolean buyUpgrade(int index) {
+        long now = clock.now();
+        record(InputRecorder.BUY_UPGRADE, index, now);
+        catchUpProduction(now);
+        if (index < 0 || index >= upgrades.size()) {
+            return false;
+        }
+        Upgrade upgrade = upgrades.get(index);
+        double cost = getUpgradeCost(upgrade);
+        if (points < cost) {
+            return false;
+        }
+
+        // Restar el coste y subir de nivel la mejora
+        points -= cost;
+        upgrade.levelUp();
+
+        // Aplicar los efectos de la mejora
+        applyUpgradeEffects(upgrade);
+        return true;
+    }
+
+    /**
+     * Aplica los efectos de una mejora según su tipo
+     * @param upgrade La mejora cuyos efectos se van a aplicar
+     */
+    private void applyUpgradeEffects(Upgrade upgrade) {
+        switch (upgrade.getType()) {
+            case CLICK:
+                // Mejoras que aumentan los puntos por clic
+                if (upgrade.getName().equals("Tinta Mejorada")) {
+                    pointsPerClick += 1 * prestigeMultiplier;
+                } else if (upgrade.getName().equals("Super Tinta Mejorada")) {
+                    pointsPerClick += 5 * prestigeMultiplier;
+                }
+                break;
+            case AUTO:
+                // Mejoras que aumentan los puntos por segundo
+                if (upgrade.getName().equals("Tinta Automática")) {
+                    pointsPerSecond += 1 * prestigeMultiplier;
+                } else if (upgrade.getName().equals("M4-Tintosa Automatica")) {
+                    pointsPerSecond += 5 * prestigeMultiplier;
+                } else if (upgrade.getName().equals("Fábrica de Tinta")) {
+                    pointsPerSecond += 10 * prestigeMultiplier;
+                }
+                break;
+            case MULTIPLIER:
+                // Mejoras que multiplican todos los puntos
+                if (upgrade.getName().equals("Tinta Multiplicadora")) {
+                    pointsPerClick *= 1.5;
+                    pointsPerSecond *= 1.5;
+                }
+                break;
+            case BOOST:
+                // Mejoras que activan un potenciador temporal
+                if (upgrade.getName().equals("Chorro de Tinta")) {
+                    startBoost(Boost.Kind.INK, 2.0, 30000);
+                } else if (upgrade.getName().equals("Tentáculos Frenéticos")) {
+                    startBoost(Boost.Kind.TAP, 7.0, 10000);
+                }
+                break;
+            case GENERATOR:
+                // Mejoras que añaden un generador a su nivel de la cadena
+                int tier = generators.tierOf(upgrade.getName());
+                if (tier > 0) {
+                    generators.add(tier, 1);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Calcula el coste actual de una mejora con el descuento de las meta-mejoras
+     * @param upgrade Mejora a consultar
+     * @return Coste para comprar el siguiente nivel
+     */
+    public double getUpgradeCost(Upgrade upgrade) {
+        return upgrade.getCurrentCost() * metaCostMultiplier;
+    }
+
+    /**
+     * Sube de nivel las mejoras recién creadas según las meta-mejoras de nivel inicial
+     */
+    private void applyStartingLevels() {
+        int[] startingLevels = metaTree.getStartingLevels();
+        for (int i = 0; i < startingLevels.length && i < upgrades.size(); i++) {
+            for (int level = 0; level < startingLevels[i]; level++) {
+                upgrades.get(i).levelUp();
+                applyUpgradeEffects(upgrades.get(i));
+            }
+        }
+    }
+
+    /**
+     * Calcula las perlas que daría un prestigio con los puntos actuales
+     * @return Perlas a ganar (raíz cuadrada de los miles de tinta)
+     */
+    public long getPearlsForPrestige() {
+        return (long) Math.floor(Math.sqrt(points / 1000));
+    }
+
+    /**
+     * Compra un nivel de una meta-mejora si hay perlas suficientes y se cumplen sus dependencias
+     * @param node Índice del nodo en el árbol
+     * @return true si la compra se realizó
+     */
+    public boolean buyMetaNode(int node) {
+        long now = clock.now();
+        record(InputRecorder.BUY_META, node, now);
+        catchUpProduction(now);
+        if (node < 0 || node >= metaTree.getNodeCount() || !metaTree.canBuy(node, pearls)) {
+            return false;
+        }
+        pearls -= metaTree.getCost(node);
+        metaTree.levelUp(node);
+        applyMetaModifiers();
+        return true;
+    }
+
+    /**
+     * Activa un potenciador temporal que vence dentro del tiempo indicado
+     * Empieza en el tiempo de juego actual; las compras ponen antes la producción al día,
+     * así que un potenciador comprado dura desde el instante de la compra
+     * @param kind       Efecto del potenciador
+     * @param factor     Multiplicador aplicado mientras está activo
+     * @param durationMs Duración en milisegundos de tiempo de juego
+     */
+    public void startBoost(Boost.Kind kind, double factor, long durationMs) {
+        Boost boost = new Boost(kind, factor);
+        linkBoost(boost);
+        boostWheel.schedule(boost, gameTime + durationMs);
+        recomputeBoostMultipliers();
+    }
+
+    /**
+     * Añade un potenciador al final de la lista de activos
+     */
+    private void linkBoost(Boost boost) {
+        boost.prevActive = lastBoost;
+        boost.nextActive = null;
+        if (lastBoost != null) {
+            lastBoost.nextActive = boost;
+        } else {
+            firstBoost = boost;
+        }
+        lastBoost = boost;
+        activeBoostCount++;
+    }
+
+    /**
+     * Quita un potenciador de la lista de activos sin recorrerla
+     */
+    private void unlinkBoost(Boost boost) {
+        if (boost.prevActive != null) {
+            boost.prevActive.nextActive = boost.nextActive;
+        } else {
+            firstBoost = boost.nextActive;
+        }
+        if (boost.nextActive != null) {
+            boost.nextActive.prevActive = boost.prevActive;
+        } else {
+            lastBoost = boost.prevActive;
+        }
+        boost.prevActive = null;
+        boost.nextActive = null;
+        activeBoostCount--;
+    }
+
+    /**
+     * Cancela todos los potenciadores activos
+     */
+    private void clearBoosts() {
+        for (Boost boost = firstBoost; boost != null; boost = boost.nextActive) {
+            boostWheel.cancel(boost);
+        }
+        forgetBoosts();
+        recomputeBoostMultipliers();
+    }
+
+    /**
+     * Vacía la lista de activos sin tocar la rueda (que se descarta o ya se ha vaciado)
+     */
+    private void forgetBoosts() {
+        firstBoost = null;
+        lastBoost = null;
+        activeBoostCount = 0;
+    }
+
+    /**
+     * Recalcula los multiplicadores de los potenciadores activos
+     * Solo se llama cuando un potenciador empieza o termina, nunca en cada tick
+     */
+    private void recomputeBoostMultipliers() {
+        double ink = 1.0;
+        double tap = 1.0;
+        for (Boost boost = firstBoost; boost != null; boost = boost.nextActive) {
+            if (boost.getKind() == Boost.Kind.INK) {
+                ink *= boost.getFactor();
+            } else {
+                tap *= boost.getFactor();
+            }
+        }
+        inkBoostMultiplier = ink;
+        tapBoostMultiplier = tap;
+    }
+
+    /**
+     * Realiza un prestigio si se cumplen los requisitos
+     * Reinicia el progreso pero aumenta el multiplicador
+     * @return true si se realizó el prestigio
+     */
+    public boolean prestige() {
+        record(InputRecorder.PRESTIGE, 0, clock.now());
+        if (points < prestigeRequirement) {
+            return false;
+        }
+
+        // Ganar perlas según la tinta acumulada
+        pearls += getPearlsForPrestige();
+
+        // Aumentar nivel de prestigio y calcular nuevo multiplicador
+        prestigeLevel++;
+        prestigeMultiplier = 1.0 + (prestigeLevel * 0.5);
+
+        // Aumentar requisito para el próximo prestigio
+        prestigeRequirement *= 1.5;
+
+        // Reiniciar progreso con el nuevo multiplicador
+        points = 0;
+        pointsPerClick = 1 * prestigeMultiplier;
+        pointsPerSecond = 0;
+
+        // Reiniciar mejoras, generadores y potenciadores, aplicando los niveles iniciales del árbol
+        upgrades = createDefaultUpgrades();
+        generators.reset();
+        clearBoosts();
+        applyStartingLevels();
+        return true;
+    }
+
+    /**
+     * Reinicia todas las estadísticas del juego a sus valores iniciales
+     */
+    public void reset() {
+        record(InputRecorder.RESET, 0, clock.now());
+        points = 0;
+        pointsPerClick = 1;
+        pointsPerSecond = 0;
+        prestigeLevel = 0;
+        prestigeMultiplier = 1.0;
+        prestigeRequirement = 5000;
+        upgrades = createDefaultUpgrades();
+        generators.reset();
+        clearBoosts();
+        pearls = 0;
+        metaTree.setLevels(new int[0]);
+        applyMetaModifiers();
+    }
+
+    /**
+     * Ejecuta un tick de producción automática (un segundo de juego)
+     */
+    public void tick() {
+        long now = clock.now();
+        record(InputRecorder.TICK, 0, now);
+        produce(TICK_MILLIS - tickProducedMs);
+        startTickWindow(now);
+    }
+
+    /**
+     * Avanza el tiempo de juego sin jugar (progreso mientras la aplicación estaba cerrada)
+     * @param elapsedMs Tiempo transcurrido en milisegundos
+     */
+    public void advance(long elapsedMs) {
+        long now = clock.now();
+        record(InputRecorder.ADVANCE, elapsedMs, now);
+        if (elapsedMs > 0) {
+            produce(elapsedMs);
+        }
+        startTickWindow(now);
+    }
+
+    /**
+     * Empieza un tick nuevo en el instante indicado, sin producción adelantada
+     */
+    private void startTickWindow(long now) {
+        tickStartClock = now;
+        tickProducedMs = 0;
+    }
+
+    /**
+     * Suma la producción del tick en curso hasta el instante indicado
+     * Así una compra hecha entre dos ticks cambia la producción (o empieza su potenciador)
+     * en el instante de la compra y no en el tick anterior; el siguiente tick solo suma lo
+     * que falte del segundo
+     * @param now Hora actual del reloj
+     */
+    private void catchUpProduction(long now) {
+        long elapsed = Math.min(Math.max(now - tickStartClock, 0), TICK_MILLIS);
+        if (elapsed > tickProducedMs) {
+            produce(elapsed - tickProducedMs);
+            tickProducedMs = elapsed;
+        }
+    }
+
+    /**
+     * Suma la producción automática de un intervalo de tiempo
+     * El intervalo se parte en cada vencimiento de un potenciador, de modo que cada tramo
+     * usa el multiplicador que estaba activo en él
+     * @param durationMs Duración del intervalo en milisegundos
+     */
+    private void produce(long durationMs) {
+        long end = gameTime + durationMs;
+        productionCursor = gameTime;
+        boostWheel.advanceTo(end, boostExpiryListener);
+        addProduction(end - productionCursor);
+        gameTime = end;
+    }
+
+    /**
+     * Suma la tinta automática de un tramo con los multiplicadores actuales
+     * Incluye la tinta fija por segundo y la que producen los generadores en ese tramo
+     * @param durationMs Duración del tramo en milisegundos
+     */
+    private void addProduction(long durationMs) {
+        double multiplier = prestigeMultiplier * inkBoostMultiplier * metaProductionMultiplier;
+        points += pointsPerSecond * multiplier * (durationMs / 1000.0);
+        double generatedInk = generators.advance(durationMs);
+        if (generatedInk != 0) {
+            points += generatedInk * multiplier;
+        }
+    }
+
+    /**
+     * Marca la pausa de la partida (la aplicación pasa a segundo plano)
+     * No modifica el estado; solo queda registrada en la grabación
+     */
+    public void pause() {
+        record(InputRecorder.PAUSE, 0, clock.now());
+    }
+
+    /**
+     * Marca la reanudación de la partida
+     * No modifica el estado; solo queda registrada en la grabación
+     */
+    public void resume() {
+        record(InputRecorder.RESUME, 0, clock.now());
+    }
+
+    /**
+     * Escribe el estado completo de la partida en formato binario
+     * @param out Flujo de salida
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(points);
+        out.writeDouble(pointsPerClick);
+        out.writeDouble(pointsPerSecond);
+        out.writeInt(prestigeLevel);
+        out.writeDouble(prestigeMultiplier);
+        out.writeDouble(prestigeRequirement);
+        out.writeInt(upgrades.size());
+        for (Upgrade upgrade : upgrades) {
+            out.writeUTF(upgrade.getName());
+            out.writeDouble(upgrade.getBaseCost());
+            out.writeDouble(upgrade.getCostMultiplier());
+            out.writeByte(upgrade.getType().ordinal());
+            out.writeInt(upgrade.getLevel());
+            out.writeUTF(upgrade.getDescription());
+        }
+        generators.writeState(out);
+        out.writeLong(pearls);
+        int[] metaLevels = metaTree.getLevels();
+        out.writeInt(metaLevels.length);
+        for (int level : metaLevels) {
+            out.writeInt(level);
+        }
+        out.writeLong(gameTime);
+        out.writeInt(activeBoostCount);
+        for (Boost boost = firstBoost; boost != null; boost = boost.nextActive) {
+            out.writeByte(boost.getKind().ordinal());
+            out.writeDouble(boost.getFactor());
+            out.writeLong(boost.getDeadline() - gameTime);
+        }
+        out.writeLong(random.getState());
+        out.writeInt(comboStreak);
+        out.writeLong(lastTapTime);
+        out.writeLong(tickStartClock);
+        out.writeLong(tickProducedMs);
+    }
+
+    /**
+     * Lee el estado completo de la partida escrito con {@link #writeState}
+     * @param in Flujo de entrada
+     */
+    public void readState(DataInputStream in) throws IOException {
+        points = in.readDouble();
+        pointsPerClick = in.readDouble();
+        pointsPerSecond = in.readDouble();
+        prestigeLevel = in.readInt();
+        prestigeMultiplier = in.readDouble();
+        prestigeRequirement = in.readDouble();
+        int count = in.readInt();
+        upgrades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            double baseCost = in.readDouble();
+            double costMultiplier = in.readDouble();
+            Upgrade.Type type = Upgrade.Type.values()[in.readByte()];
+            int level = in.readInt();
+            String description = in.readUTF();
+            Upgrade upgrade = new Upgrade(name, baseCost, costMultiplier, type, description);
+            upgrade.setLevel(level);
+            upgrades.add(upgrade);
+        }
+        generators.readState(in);
+        long savedPearls = in.readLong();
+        int[] metaLevels = new int[in.readInt()];
+        for (int i = 0; i < metaLevels.length; i++) {
+            metaLevels[i] = in.readInt();
+        }
+        restoreMeta(savedPearls, metaLevels);
+        gameTime = in.readLong();
+        boostWheel = new TimerWheel(gameTime);
+        forgetBoosts();
+        int boostCount = in.readInt();
+        for (int i = 0; i < boostCount; i++) {
+            Boost.Kind kind = Boost.Kind.values()[in.readByte()];
+            double factor = in.readDouble();
+            startBoost(kind, factor, in.readLong());
+        }
+        recomputeBoostMultipliers();
+        random.setState(in.readLong());
+        comboStreak = in.readInt();
+        lastTapTime = in.readLong();
+        tickStartClock = in.readLong();
+        tickProducedMs = in.readLong();
+        tapMeter.reset();
+    }
+
+    /**
+     * Calcula una huella del estado a partir de los bits exactos de cada valor
+     * Dos partidas con huellas distintas tienen estados distintos; con la misma huella es
+     * casi seguro que el estado es el mismo, pero al ser un hash de 64 bits no lo demuestra
+     * @return Huella de 64 bits del estado
+     */
+    public long stateChecksum() {
+        long hash = 17;
+        hash = 31 * hash + Double.doubleToLongBits(points);
+        hash = 31 * hash + Double.doubleToLongBits(pointsPerClick);
+        hash = 31 * hash + Double.doubleToLongBits(pointsPerSecond);
+        hash = 31 * hash + prestigeLevel;
+        hash = 31 * hash + Double.doubleToLongBits(prestigeMultiplier);
+        hash = 31 * hash + Double.doubleToLongBits(prestigeRequirement);
+        for (Upgrade upgrade : upgrades) {
+            hash = 31 * hash + upgrade.getName().hashCode();
+            hash = 31 * hash + upgrade.getLevel();
+        }
+        hash = 31 * hash + generators.stateChecksum();
+        hash = 31 * hash + pearls;
+        for (int level : metaTree.getLevels()) {
+            hash = 31 * hash + level;
+        }
+        hash = 31 * hash + gameTime;
+        for (Boost boost = firstBoost; boost != null; boost = boost.nextActive) {
+            hash = 31 * hash + boost.getDeadline();
+            hash = 31 * hash + Double.doubleToLongBits(boost.getFactor());
+        }
+        hash = 31 * hash + random.getState();
+        hash = 31 * hash + comboStreak;
+        hash = 31 * hash + lastTapTime;
+        hash = 31 * hash + tickStartClock;
+        hash = 31 * hash + tickProducedMs;
+        return hash;
+    }
+
+    public double getPoints() {
+        return points;
+    }
+
+    /**
+     * Parte del tick en curso que las compras ya han sumado por adelantado
+     * @return Milisegundos desde el inicio del tick ya incluidos en la tinta
+     */
+    public long getTickProducedMillis() {
+        return tickProducedMs;
+    }
+
+    public double getPointsPerClick() {
+        return pointsPerClick;
+    }
+
+    public double getPointsPerSecond() {
+        return pointsPerSecond;
+    }
+
+    public int getPrestigeLevel() {
+        return prestigeLevel;
+    }
+
+    public double getPrestigeMultiplier() {
+        return prestigeMultiplier;
+    }
+
+    public double getPrestigeRequirement() {
+        return prestigeRequirement;
+    }
+
+    public List<Upgrade> getUpgrades() {
+        return upgrades;
+    }
+
+    public long getPearls() {
+        return pearls;
+    }
+
+    public MetaTree getMetaTree() {
+        return metaTree;
+    }
+
+    public GeneratorChain getGenerators() {
+        return generators;
+    }
+
+    /**
+     * Obtiene la tinta automática por segundo actual (fija más la de los generadores)
+     * sin aplicar multiplicadores de prestigio ni potenciadores
+     */
+    public double getInkPerSecond() {
+        return pointsPerSecond + generators.getInkPerSecond();
+    }
+
+    /**
+     * Obtiene la tinta por segundo que se mantiene en el tiempo, con los multiplicadores
+     * de prestigio y del árbol pero sin los potenciadores, que caducan
+     */
+    public double getSustainedInkPerSecond() {
+        return getInkPerSecond() * prestigeMultiplier * metaProductionMultiplier;
+    }
+
+    /**
+     * Obtiene la tinta por segundo que sumará el próximo tick, con todos los multiplicadores
+     */
+    public double getEffectiveInkPerSecond() {
+        return getInkPerSecond() * prestigeMultiplier * inkBoostMultiplier * metaProductionMultiplier;
+    }
+
+    public long getGameTime() {
+        return gameTime;
+    }
+
+    /**
+     * Copia de los potenciadores activos, en orden de activación
+     * Crea una lista nueva en cada llamada: solo para guardar, exportar o mostrar
+     * @return Lista nueva con los potenciadores activos
+     */
+    public List<Boost> getActiveBoosts() {
+        List<Boost> boosts = new ArrayList<>(activeBoostCount);
+        for (Boost boost = firstBoost; boost != null; boost = boost.nextActive) {
+            boosts.add(boost);
+        }
+        return boosts;
+    }
+
+    public double getInkBoostMultiplier() {
+        return inkBoostMultiplier;
+    }
+
+    public double getTapBoostMultiplier() {
+        return tapBoostMultiplier;
+    }
+
+    /**
+     * Obtiene el multiplicador de combo vigente (1.0 si el combo ha caducado)
+     */
+    public double getComboMultiplier() {
+        if (clock.now() - lastTapTime > COMBO_TIMEOUT_MILLIS) {
+            return 1.0;
+        }
+        return comboMultiplier(comboStreak);
+    }
+
+    /**
+     * Obtiene los toques del último segundo
+     */
+    public int getTapsPerSecond() {
+        return tapMeter.getTapsPerSecond(clock.now());
+    }
+
+    public boolean isLastTapCritical() {
+        return lastTapCritical;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.txipitapv11;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.firebase.crashlytics.buildtools.reloc.com.google.common.reflect.TypeToken;
+import com.google.gson.Gson;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase encargada de guardar y cargar el estado del juego en las preferencias compartidas
+ */
+public class GameStorage {
+
+    // Constantes para el guardado de datos
+    static final String PREFS_NAME = "ClickerGamePrefs";
+    private static final String KEY_POINTS = "points";
+    private static final String KEY_POINTS_PER_CLICK = "pointsPerClick";
+    private static final String KEY_POINTS_PER_SECOND = "pointsPerSecond";
+    private static final String KEY_PRESTIGE_LEVEL = "prestigeLevel";
+    private static final String KEY_PRESTIGE_MULTIPLIER = "prestigeMultiplier";
+    private static final String KEY_PRESTIGE_REQUIREMENT = "prestigeRequirement";
+    private static final String KEY_UPGRADES = "upgrades";
+    private static final String KEY_GENERATORS = "generators";
+    private static final String KEY_PEARLS = "pearls";
+    private static final String KEY_META_LEVELS = "metaLevels";
+    private static final String KEY_BOOSTS = "boosts";
+    private static final String KEY_SAVE_TIME = "saveTime";
+    private static final String KEY_HAPTICS = "haptics";
+    private static final String KEY_SMOOTH_COUNTER = "smoothCounter";
+
+    // Resumen para el widget, en un fichero aparte para que leerlo no cargue la lista de mejoras
+    static final String WIDGET_PREFS_NAME = "InkWidgetPrefs";
+    static final String KEY_WIDGET_POINTS = "points";           // Bits del double de la tinta
+    static final String KEY_WIDGET_RATE = "rate";               // Bits del double de la tinta/s sostenida
+    static final String KEY_WIDGET_REQUIREMENT = "requirement"; // Bits del double del requisito de prestigio
+    static final String KEY_WIDGET_SAVE_TIME = "saveTime";
+
+    private final SharedPreferences prefs;
+    private final SharedPreferences widgetPrefs;
+
+    public GameStorage(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        widgetPrefs = context.getSharedPreferences(WIDGET_PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Carga el estado del juego desde las preferencias compartidas
+     * Incluye puntos, mejoras, nivel de prestigio y otros valores
+     * @param engine Motor en el que se restaura el estado
+     */
+    public void load(GameEngine engine) {
+        // Cargar puntos con manejo de errores
+        String savedPoints = prefs.getString(KEY_POINTS, "0.0");
+        double points;
+        try {
+            points = Double.parseDouble(savedPoints);
+        } catch (NumberFormatException e) {
+            points = 0.0;
+        }
+
+        // Cargar lista de mejoras usando Gson para deserializar JSON
+        Gson gson = new Gson();
+        String json = prefs.getString(KEY_UPGRADES, null);
+        Type type = new TypeToken<ArrayList<Upgrade>>() {}.getType();
+        List<Upgrade> upgrades = gson.fromJson(json, type);
+
+        // Cargar resto de valores numéricos (una lista de mejoras vacía se sustituye por la inicial)
+        engine.restoreState(points,
+                prefs.getFloat(KEY_POINTS_PER_CLICK, 1.0f),
+                prefs.getFloat(KEY_POINTS_PER_SECOND, 0.0f),
+                prefs.getInt(KEY_PRESTIGE_LEVEL, 0),
+                prefs.getFloat(KEY_PRESTIGE_MULTIPLIER, 1.0f),
+                prefs.getFloat(KEY_PRESTIGE_REQUIREMENT, 5000.0f),
+                upgrades);
+
+        // Cargar perlas y niveles del árbol de meta-mejoras ("n1;n2;...")
+        String metaLevels = prefs.getString(KEY_META_LEVELS, "");
+        String[] metaFields = metaLevels.isEmpty() ? new String[0] : metaLevels.split(";");
+        int[] levels = new int[metaFields.length];
+        try {
+            for (int i = 0; i < metaFields.length; i++) {
+                levels[i] = Integer.parseInt(metaFields[i]);
+            }
+        } catch (NumberFormatException e) {
+            levels = new int[0];
+        }
+        engine.restoreMeta(prefs.getLong(KEY_PEARLS, 0), levels);
+
+        // Cargar cantidades de generadores por nivel ("n1;n2;...")
+        String generators = prefs.getString(KEY_GENERATORS, "");
+        if (!generators.isEmpty()) {
+            String[] fields = generators.split(";");
+            double[] counts = new double[fields.length];
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    counts[i] = Double.parseDouble(fields[i]);
+                }
+                engine.getGenerators().setCounts(counts);
+            } catch (NumberFormatException e) {
+                // Ignorar cantidades corruptas
+            }
+        }
+
+        // Cargar potenciadores activos con el tiempo que les quedaba ("TIPO:factor:ms;...")
+        String boosts = prefs.getString(KEY_BOOSTS, "");
+        for (String entry : boosts.split(";")) {
+            String[] fields = entry.split(":");
+            if (fields.length != 3) {
+                continue;
+            }
+            try {
+                engine.startBoost(Boost.Kind.valueOf(fields[0]), Double.parseDouble(fields[1]),
+                        Long.parseLong(fields[2]));
+            } catch (IllegalArgumentException e) {
+                // Ignorar entradas corruptas
+            }
+        }
+    }
+
+    /**
+     * Indica si el jugador quiere vibración al tocar (activada por defecto)
+     */
+    public boolean isHapticsEnabled() {
+        return prefs.getBoolean(KEY_HAPTICS, true);
+    }
+
+    /**
+     * Guarda la preferencia de vibración al tocar
+     * @param enabled true para vibrar al tocar
+     */
+    public void setHapticsEnabled(boolean enabled) {
+        prefs.edit().putBoolean(KEY_HAPTICS, enabled).apply();
+    }
+
+    /**
+     * Indica si el contador de tinta se anima en cada fotograma (activado por defecto)
+     */
+    public boolean isSmoothCounterEnabled() {
+        return prefs.getBoolean(KEY_SMOOTH_COUNTER, true);
+    }
+
+    /**
+     * Guarda la preferencia del contador fluido
+     * @param enabled true para animar el contador en cada fotograma
+     */
+    public void setSmoothCounterEnabled(boolean enabled) {
+        prefs.edit().putBoolean(KEY_SMOOTH_COUNTER, enabled).apply();
+    }
+
+    /**
+     * Calcula el tiempo real transcurrido desde el último guardado
+     * @return Milisegundos desde el último guardado, o 0 si no hay guardado
+     */
+    public long getElapsedSinceSave() {
+        long saveTime = prefs.getLong(KEY_SAVE_TIME, 0);
+        if (saveTime == 0) {
+            return 0;
+        }
+        return Math.max(0, System.currentTimeMillis() - saveTime);
+    }
+
+    /**
+     * Guarda el estado actual del juego en las preferencias compartidas
+     * Incluye todos los valores importantes para restaurar el juego
+     * @param engine Motor cuyo estado se guarda
+     */
+    public void save(GameEngine engine) {
+        SharedPreferences.Editor editor = prefs.edit();
+
+        // Guardar todos los valores del estado del juego
+        editor.putString(KEY_POINTS, String.valueOf(engine.getPoints()));
+        editor.putFloat(KEY_POINTS_PER_CLICK, (float) engine.getPointsPerClick());
+        editor.putFloat(KEY_POINTS_PER_SECOND, (float) engine.getPointsPerSecond());
+        editor.putInt(KEY_PRESTIGE_LEVEL, engine.getPrestigeLevel());
+        editor.putFloat(KEY_PRESTIGE_MULTIPLIER, (float) engine.getPrestigeMultiplier());
+        editor.putFloat(KEY_PRESTIGE_REQUIREMENT, (float) engine.getPrestigeRequirement());
+
+        // Guardar lista de mejoras usando Gson para serializar a JSON
+        Gson gson = new Gson();
+        String json = gson.toJson(engine.getUpgrades());
+        editor.putString(KEY_UPGRADES, json);
+
+        // Guardar perlas y niveles del árbol de meta-mejoras
+        editor.putLong(KEY_PEARLS, engine.getPearls());
+        StringBuilder metaLevels = new StringBuilder();
+        for (int level : engine.getMetaTree().getLevels()) {
+            metaLevels.append(level).append(';');
+        }
+        editor.putString(KEY_META_LEVELS, metaLevels.toString());
+
+        // Guardar cantidades de generadores por nivel
+        StringBuilder generators = new StringBuilder();
+        for (double count : engine.getGenerators().getCounts()) {
+            generators.append(count).append(';');
+        }
+        editor.putString(KEY_GENERATORS, generators.toString());
+
+        // Guardar potenciadores activos con el tiempo que les queda
+        StringBuilder boosts = new StringBuilder();
+        for (Boost boost : engine.getActiveBoosts()) {
+            boosts.append(boost.getKind().name()).append(':')
+                    .append(boost.getFactor()).append(':')
+                    .append(boost.getDeadline() - engine.getGameTime()).append(';');
+        }
+        editor.putString(KEY_BOOSTS, boosts.toString());
+        long saveTime = System.currentTimeMillis();
+        editor.putLong(KEY_SAVE_TIME, saveTime);
+
+        // Aplicar cambios
+        editor.commit();
+
+        saveWidgetSummary(engine, saveTime);
+    }
+
+    /**
+     * Guarda el resumen que el widget extrapola sin cargar la partida
+     * Solo cuatro valores; el ritmo excluye los potenciadores porque caducan
+     * @param engine   Motor cuyo estado se resume
+     * @param saveTime Instante del guardado (reloj de pared)
+     */
+    private void saveWidgetSummary(GameEngine engine, long saveTime) {
+        widgetPrefs.edit()
+                .putLong(KEY_WIDGET_POINTS, Double.doubleToRawLongBits(engine.getPoints()))
+                .putLong(KEY_WIDGET_RATE, Double.doubleToRawLongBits(engine.getSustainedInkPerSecond()))
+                .putLong(KEY_WIDGET_REQUIREMENT, Double.doubleToRawLongBits(engine.getPrestigeRequirement()))
+                .putLong(KEY_WIDGET_SAVE_TIME, saveTime)
+                .apply();
+    }
+}
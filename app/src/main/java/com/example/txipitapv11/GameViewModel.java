@@ -0,0 +1,273 @@
+package com.example.txipitapv11;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.AndroidViewModel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Sesión de juego que sobrevive a los cambios de configuración
+ *
+ * Mantiene el motor, el bucle de producción automática y los guardados pendientes
+ * fuera de la actividad. Al rotar la pantalla o cambiar el modo oscuro, la nueva
+ * actividad se vuelve a enganchar a esta sesión en memoria: no se lee ni se escribe
+ * el disco y el tick no se reinicia.
+ */
+public class GameViewModel extends AndroidViewModel {
+
+    /**
+     * Interfaz para que la actividad visible reciba los ticks de producción.
+     */
+    public interface Listener {
+        void onTick();
+    }
+
+    // Guardar cada 5 ticks en lugar de cada segundo para reducir operaciones I/O
+    private static final int SAVE_INTERVAL_TICKS = 5;
+
+    // Fichero donde se escribe la grabación de la última sesión
+    private static final String SESSION_RECORDING_FILE = "last_session.rec";
+
+    private final GameEngine engine;        // Motor con el estado de la partida
+    private final GameStorage storage;      // Guardado en preferencias compartidas
+    private InputRecorder recorder;         // Grabación de entradas (solo en builds depurables)
+    private final TapFeedback tapFeedback;  // Sonido y vibración de los toques, cargado una vez por sesión
+
+    // Sistema de auto-clicker
+    private final Handler autoClickHandler = new Handler(Looper.getMainLooper());
+    private final Runnable autoClickRunnable;
+    private boolean running = false;        // true mientras el tick está programado
+    private long pausedAt;                  // Instante (elapsedRealtime) de la última pausa
+    private long lastTickNanos;             // Instante (System.nanoTime) del último tick o reanudación
+    private int ticksSinceSave = 0;         // Ticks transcurridos desde el último guardado
+    private int saveCount = 0;              // Guardados realizados en la sesión
+
+    private Listener listener;              // Actividad enganchada, o null entre recreaciones
+
+    public GameViewModel(@NonNull Application application) {
+        super(application);
+
+        // Crear el motor del juego con un reloj monotónico
+        engine = new GameEngine(new GameClock() {
+            @Override
+            public long now() {
+                return SystemClock.uptimeMillis();
+            }
+        });
+
+        // Cargar estado guardado una sola vez por sesión
+        storage = new GameStorage(application);
+        storage.load(engine);
+
+        // Precargar el sonido del toque para que no se recargue al rotar la pantalla
+        tapFeedback = new TapFeedback(application, storage.isHapticsEnabled());
+
+        // Sumar el progreso del tiempo que la aplicación ha estado cerrada
+        engine.advance(storage.getElapsedSinceSave());
+        lastTickNanos = System.nanoTime();
+
+        // Grabar las entradas de la sesión en builds depurables para poder reproducirlas
+        if ((application.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            recorder = new InputRecorder();
+            engine.setRecorder(recorder);
+        }
+
+        autoClickRunnable = new Runnable() {
+            @Override
+            public void run() {
+                // Añadir puntos automáticos cada segundo
+                engine.tick();
+                lastTickNanos = System.nanoTime();
+
+                ticksSinceSave++;
+                if (ticksSinceSave >= SAVE_INTERVAL_TICKS) {
+                    save();
+                }
+
+                if (listener != null) {
+                    listener.onTick();
+                }
+
+                // Programar la próxima ejecución en 1 segundo
+                autoClickHandler.postDelayed(this, GameEngine.TICK_MILLIS);
+            }
+        };
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Instante del último tick real, desde el que interpola el contador fluido
+     * @return Instante en la base de System.nanoTime, la misma que usa Choreographer
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public TapFeedback getTapFeedback() {
+        return tapFeedback;
+    }
+
+    public boolean isHapticsEnabled() {
+        return storage.isHapticsEnabled();
+    }
+
+    /**
+     * Activa o desactiva la vibración al tocar y guarda la preferencia
+     * @param enabled true para vibrar al tocar
+     */
+    public void setHapticsEnabled(boolean enabled) {
+        storage.setHapticsEnabled(enabled);
+        tapFeedback.setHapticsEnabled(enabled);
+    }
+
+    public boolean isSmoothCounterEnabled() {
+        return storage.isSmoothCounterEnabled();
+    }
+
+    public void setSmoothCounterEnabled(boolean enabled) {
+        storage.setSmoothCounterEnabled(enabled);
+    }
+
+    /**
+     * Engancha la actividad visible para recibir los ticks
+     * @param listener Actividad actual, o null al destruirse
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Reanuda la partida si estaba en pausa (la aplicación vuelve a primer plano)
+     * Si el tick ya está en marcha, como tras una rotación, no hace nada
+     */
+    public void resume() {
+        if (running) {
+            return;
+        }
+        running = true;
+        engine.resume();
+
+        // Sumar el progreso del tiempo en segundo plano (0 la primera vez)
+        if (pausedAt != 0) {
+            engine.advance(SystemClock.elapsedRealtime() - pausedAt);
+            lastTickNanos = System.nanoTime();
+        }
+        autoClickHandler.postDelayed(autoClickRunnable, GameEngine.TICK_MILLIS);
+    }
+
+    /**
+     * Pausa la partida y la guarda (la aplicación pasa a segundo plano)
+     * No debe llamarse durante un cambio de configuración
+     */
+    public void pause() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        autoClickHandler.removeCallbacks(autoClickRunnable);
+        engine.pause();
+        pausedAt = SystemClock.elapsedRealtime();
+        save();
+        writeSessionRecording();
+
+        // Redibujar el widget con el resumen recién guardado
+        InkWidgetProvider.updateAll(getApplication());
+    }
+
+    /**
+     * Guarda el estado del juego y reinicia la cuenta de ticks pendientes
+     * Se usa tras compras, prestigios y reinicios, y periódicamente desde el tick
+     */
+    public void save() {
+        saveCount++;
+        ticksSinceSave = 0;
+        storage.save(engine);
+    }
+
+    /**
+     * Exporta la partida a un fichero elegido por el jugador
+     * @param out Flujo del fichero de destino
+     */
+    public void exportGame(OutputStream out) throws IOException {
+        SaveArchive.write(engine, out);
+    }
+
+    /**
+     * Importa una partida exportada y la carga en el motor de la sesión
+     * Si el fichero no es válido se lanza la excepción y la partida en curso no cambia
+     * @param in Flujo del fichero de origen
+     */
+    public void importGame(InputStream in) throws IOException {
+        GameEngine imported = SaveArchive.read(in, new GameClock() {
+            @Override
+            public long now() {
+                return SystemClock.uptimeMillis();
+            }
+        });
+
+        // Copiar el estado al motor existente, que la actividad ya tiene enganchado
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        imported.writeState(new DataOutputStream(bytes));
+        engine.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // La grabación anterior ya no lleva a este estado: empezar una nueva desde aquí
+        if (recorder != null) {
+            engine.setRecorder(recorder);
+        }
+        save();
+    }
+
+    /**
+     * Obtiene los guardados realizados en la sesión, para acotar la E/S en las pruebas de carga
+     */
+    @VisibleForTesting
+    int getSaveCount() {
+        return saveCount;
+    }
+
+    /**
+     * Escribe la grabación de entradas de la sesión en el almacenamiento interno
+     * Solo hay grabación en builds depurables
+     */
+    private void writeSessionRecording() {
+        if (recorder == null) {
+            return;
+        }
+        File file = new File(getApplication().getFilesDir(), SESSION_RECORDING_FILE);
+        try (OutputStream out = new FileOutputStream(file)) {
+            recorder.writeTo(out);
+        } catch (IOException e) {
+            // La grabación es una herramienta de depuración; un fallo no afecta al juego
+        }
+    }
+
+    /**
+     * Método llamado cuando la sesión termina definitivamente
+     * Detiene el tick, realiza un guardado final y libera el sonido
+     */
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        pause();
+        tapFeedback.release();
+        listener = null;
+    }
+}
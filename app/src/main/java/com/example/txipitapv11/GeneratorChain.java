@@ -0,0 +1,219 @@
+package com.example.txipitapv11;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Cadena de generadores por niveles
+ *
+ * Cada generador del nivel N produce generadores del nivel N-1, y los del nivel 1
+ * producen tinta. Las cantidades se guardan en arrays primitivos y la producción
+ * avanza en pasos de un segundo: un tick recorre todos los niveles en una sola pasada,
+ * y un intervalo largo (tiempo sin jugar) se resuelve de golpe con la forma cerrada
+ * de esos mismos pasos, cuyo coste no depende de la duración del intervalo.
+ */
+public class GeneratorChain {
+
+    // Duración de un paso de la simulación de generadores
+    public static final long STEP_MILLIS = 1000;
+
+    private final String[] names;     // Nombre de cada nivel (índice 0 = nivel 1)
+    private final double[] rates;     // Unidades producidas por segundo por cada generador del nivel
+
+    // values[0] acumula la tinta producida; values[k] es la cantidad de generadores del nivel k
+    private final double[] values;
+    private long pendingMillis = 0;   // Tiempo acumulado que aún no completa un paso
+
+    /**
+     * Constructor de la cadena
+     * @param names Nombre de cada nivel, del 1 en adelante
+     * @param rates Producción por segundo de un generador de cada nivel
+     */
+    public GeneratorChain(String[] names, double[] rates) {
+        this.names = names;
+        this.rates = rates;
+        this.values = new double[names.length + 1];
+    }
+
+    /**
+     * Crea la cadena de generadores del juego
+     * @return Cadena sin generadores
+     */
+    public static GeneratorChain createDefault() {
+        return new GeneratorChain(
+                new String[]{"Txipirón Entintador", "Vivero de Txipirones", "Arrecife de Viveros",
+                        "Banco de Arrecifes", "Mar Interior", "Océano de Tinta"},
+                new double[]{2.0, 0.5, 0.25, 0.125, 0.0625, 0.03125});
+    }
+
+    /**
+     * Obtiene el número de niveles de la cadena
+     */
+    public int getTierCount() {
+        return names.length;
+    }
+
+    /**
+     * Busca el nivel de un generador por su nombre
+     * @param name Nombre del generador
+     * @return Nivel (desde 1), o 0 si no es un generador
+     */
+    public int tierOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    public String getName(int tier) {
+        return names[tier - 1];
+    }
+
+    public double getRate(int tier) {
+        return rates[tier - 1];
+    }
+
+    /**
+     * Obtiene la cantidad de generadores de un nivel (comprados y producidos)
+     * @param tier Nivel desde 1
+     */
+    public double getCount(int tier) {
+        return values[tier];
+    }
+
+    /**
+     * Añade generadores a un nivel
+     * @param tier   Nivel desde 1
+     * @param amount Cantidad a añadir
+     */
+    public void add(int tier, double amount) {
+        values[tier] += amount;
+    }
+
+    /**
+     * Obtiene la tinta que producen ahora los generadores del nivel 1 por segundo
+     */
+    public double getInkPerSecond() {
+        return values.length > 1 ? rates[0] * values[1] : 0;
+    }
+
+    /**
+     * Elimina todos los generadores
+     */
+    public void reset() {
+        Arrays.fill(values, 0);
+        pendingMillis = 0;
+    }
+
+    /**
+     * Avanza la cadena el tiempo indicado
+     * Se ejecutan tantos pasos de un segundo como quepan; el resto se guarda para el siguiente avance
+     * @param durationMs Tiempo en milisegundos
+     * @return Tinta producida
+     */
+    public double advance(long durationMs) {
+        long total = pendingMillis + durationMs;
+        long steps = total / STEP_MILLIS;
+        pendingMillis = total % STEP_MILLIS;
+
+        values[0] = 0;
+        if (steps == 1) {
+            step();
+        } else if (steps > 1) {
+            advanceSteps(steps);
+        }
+        return values[0];
+    }
+
+    /**
+     * Ejecuta un paso de un segundo en una sola pasada
+     * Se recorre de abajo arriba para que cada nivel use la cantidad del nivel superior antes del paso
+     */
+    private void step() {
+        for (int k = 0; k < rates.length; k++) {
+            values[k] += rates[k] * values[k + 1];
+        }
+    }
+
+    /**
+     * Ejecuta n pasos de golpe con su forma cerrada
+     *
+     * Un paso es x' = (I + A) x, con A nilpotente (solo la diagonal superior, con los ritmos).
+     * Por tanto n pasos son x(n) = sum_j C(n, j) A^j x, y el nivel k queda como
+     * x_k(n) = sum_j C(n, j) * r_(k+1) * ... * r_(k+j) * x_(k+j)
+     * Cuesta O(niveles^2) sea cual sea n, y da lo mismo que ejecutar los n pasos.
+     */
+    private void advanceSteps(long steps) {
+        double n = steps;
+        // De abajo arriba: el nivel k solo lee niveles >= k, que aún no se han sobrescrito
+        for (int k = 0; k < values.length; k++) {
+            double sum = values[k];
+            double binomial = 1.0;
+            double product = 1.0;
+            for (int j = 1; k + j < values.length && j <= steps; j++) {
+                binomial = binomial * (n - j + 1) / j;
+                product *= rates[k + j - 1];
+                sum += binomial * product * values[k + j];
+            }
+            values[k] = sum;
+        }
+    }
+
+    /**
+     * Escribe las cantidades y el tiempo pendiente en formato binario
+     * @param out Flujo de salida
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeInt(names.length);
+        for (int k = 1; k < values.length; k++) {
+            out.writeDouble(values[k]);
+        }
+        out.writeLong(pendingMillis);
+    }
+
+    /**
+     * Lee el estado escrito con {@link #writeState}
+     * @param in Flujo de entrada
+     */
+    public void readState(DataInputStream in) throws IOException {
+        double[] counts = new double[in.readInt()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = in.readDouble();
+        }
+        setCounts(counts);
+        pendingMillis = in.readLong();
+    }
+
+    /**
+     * Calcula una huella de las cantidades a partir de sus bits exactos
+     */
+    public long stateChecksum() {
+        long hash = pendingMillis;
+        for (int k = 1; k < values.length; k++) {
+            hash = 31 * hash + Double.doubleToLongBits(values[k]);
+        }
+        return hash;
+    }
+
+    /**
+     * Obtiene las cantidades de todos los niveles (índice 0 = nivel 1), para guardarlas
+     */
+    public double[] getCounts() {
+        return Arrays.copyOfRange(values, 1, values.length);
+    }
+
+    /**
+     * Restaura las cantidades guardadas; los niveles que falten quedan a 0
+     * @param counts Cantidades por nivel (índice 0 = nivel 1)
+     */
+    public void setCounts(double[] counts) {
+        reset();
+        for (int i = 0; i < counts.length && i + 1 < values.length; i++) {
+            values[i + 1] = counts[i];
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.txipitapv11;
+
+/**
+ * Estimación de la tinta a partir del último resumen guardado
+ *
+ * El widget no tiene el motor en memoria: solo conoce la tinta, el ritmo sostenido
+ * y el instante del último guardado. Con eso la tinta actual se calcula en forma
+ * cerrada (una multiplicación y una suma), sin simular ticks ni leer las mejoras.
+ * Los generadores siguen criando después del guardado, así que la estimación es
+ * una cota inferior que se corrige en cuanto la aplicación vuelve a guardar.
+ */
+public final class InkEstimate {
+
+    private InkEstimate() {
+    }
+
+    /**
+     * Calcula la tinta estimada en un instante
+     * @param points  Tinta en el momento del guardado
+     * @param rate    Tinta por segundo sostenida en el momento del guardado
+     * @param savedAt Instante del guardado (milisegundos de reloj de pared)
+     * @param now     Instante actual (milisegundos de reloj de pared)
+     * @return Tinta estimada
+     */
+    public static double pointsAt(double points, double rate, long savedAt, long now) {
+        long elapsed = Math.max(0, now - savedAt);
+        return points + rate * (elapsed / 1000.0);
+    }
+
+    /**
+     * Calcula los segundos que faltan para alcanzar el requisito de prestigio
+     * @param points      Tinta actual
+     * @param rate        Tinta por segundo
+     * @param requirement Requisito de prestigio
+     * @return Segundos restantes, 0 si ya se alcanza, o -1 si no hay producción
+     */
+    public static long secondsUntil(double points, double rate, double requirement) {
+        if (points >= requirement) {
+            return 0;
+        }
+        if (rate <= 0) {
+            return -1;
+        }
+        return (long) Math.ceil((requirement - points) / rate);
+    }
+
+    /**
+     * Formatea una duración de forma compacta ("2d 3h", "1h 5m", "4m 10s", "30s")
+     * @param seconds Duración en segundos
+     * @return Cadena formateada
+     */
+    public static String formatDuration(long seconds) {
+        long days = seconds / 86400;
+        long hours = (seconds / 3600) % 24;
+        long minutes = (seconds / 60) % 60;
+        if (days > 0) {
+            return days + "d " + hours + "h";
+        }
+        if (hours > 0) {
+            return hours + "h " + minutes + "m";
+        }
+        if (minutes > 0) {
+            return minutes + "m " + (seconds % 60) + "s";
+        }
+        return seconds + "s";
+    }
+}
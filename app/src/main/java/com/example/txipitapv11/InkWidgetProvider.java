@@ -0,0 +1,94 @@
+package com.example.txipitapv11;
+
+import android.app.PendingIntent;
+import android.appwidget.AppWidgetManager;
+import android.appwidget.AppWidgetProvider;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.widget.RemoteViews;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Widget de escritorio con la tinta estimada, el ritmo y el tiempo hasta el próximo prestigio
+ *
+ * No tiene actualizaciones periódicas (updatePeriodMillis = 0) ni servicios: se redibuja
+ * cuando la aplicación pasa a segundo plano y cuando el usuario lo toca. Cada redibujado
+ * lee el resumen de cuatro valores que deja {@link GameStorage} y extrapola la tinta
+ * en forma cerrada con {@link InkEstimate}, sin abrir la actividad ni leer las mejoras.
+ */
+public class InkWidgetProvider extends AppWidgetProvider {
+
+    // Acción del toque sobre el widget para recalcular la estimación
+    static final String ACTION_REFRESH = "com.example.txipitapv11.action.REFRESH_WIDGET";
+
+    /**
+     * Redibuja todos los widgets colocados, si hay alguno
+     * Lo llama la aplicación tras guardar al pasar a segundo plano
+     * @param context Contexto de la aplicación
+     */
+    public static void updateAll(Context context) {
+        AppWidgetManager manager = AppWidgetManager.getInstance(context);
+        int[] ids = manager.getAppWidgetIds(new ComponentName(context, InkWidgetProvider.class));
+        if (ids.length > 0) {
+            render(context, manager, ids);
+        }
+    }
+
+    @Override
+    public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
+        render(context, appWidgetManager, appWidgetIds);
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (ACTION_REFRESH.equals(intent.getAction())) {
+            updateAll(context);
+        } else {
+            super.onReceive(context, intent);
+        }
+    }
+
+    /**
+     * Calcula la estimación una sola vez y la aplica a los widgets indicados
+     */
+    private static void render(Context context, AppWidgetManager manager, int[] ids) {
+        SharedPreferences prefs = context.getSharedPreferences(GameStorage.WIDGET_PREFS_NAME, Context.MODE_PRIVATE);
+        double savedPoints = Double.longBitsToDouble(prefs.getLong(GameStorage.KEY_WIDGET_POINTS, 0));
+        double rate = Double.longBitsToDouble(prefs.getLong(GameStorage.KEY_WIDGET_RATE, 0));
+        double requirement = Double.longBitsToDouble(prefs.getLong(GameStorage.KEY_WIDGET_REQUIREMENT,
+                Double.doubleToRawLongBits(5000)));
+        long saveTime = prefs.getLong(GameStorage.KEY_WIDGET_SAVE_TIME, 0);
+
+        long now = System.currentTimeMillis();
+        double points = saveTime == 0 ? savedPoints : InkEstimate.pointsAt(savedPoints, rate, saveTime, now);
+        long secondsToPrestige = InkEstimate.secondsUntil(points, rate, requirement);
+
+        NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.getDefault());
+        numberFormat.setMaximumFractionDigits(0);
+
+        String prestigeText;
+        if (secondsToPrestige == 0) {
+            prestigeText = "¡Prestigio disponible!";
+        } else if (secondsToPrestige < 0) {
+            prestigeText = "Sin producción automática";
+        } else {
+            prestigeText = "Prestigio en " + InkEstimate.formatDuration(secondsToPrestige);
+        }
+
+        RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_ink);
+        views.setTextViewText(R.id.widgetPointsText, numberFormat.format(points) + " Tinta");
+        views.setTextViewText(R.id.widgetRateText, numberFormat.format(rate) + " tinta/s");
+        views.setTextViewText(R.id.widgetPrestigeText, prestigeText);
+
+        // Tocar el widget recalcula la estimación en lugar de abrir la aplicación
+        Intent refresh = new Intent(context, InkWidgetProvider.class).setAction(ACTION_REFRESH);
+        views.setOnClickPendingIntent(R.id.widgetRoot, PendingIntent.getBroadcast(context, 0, refresh,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE));
+
+        manager.updateAppWidget(ids, views);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.txipitapv11;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Grabador de las entradas de una partida
+ *
+ * Guarda el estado inicial de la partida y una lista compacta de entradas con su
+ * instante (toques, compras, meta-mejoras, prestigios, ticks, avances de tiempo, pausas y reanudaciones).
+ * Las entradas se almacenan en arrays primitivos para no crear objetos por evento,
+ * y se serializan con tiempos en diferencias codificadas como varint.
+ */
+public class InputRecorder {
+
+    // Tipos de entrada
+    public static final int TAP = 0;
+    public static final int BUY_UPGRADE = 1;
+    public static final int PRESTIGE = 2;
+    public static final int TICK = 3;
+    public static final int PAUSE = 4;
+    public static final int RESUME = 5;
+    public static final int RESET = 6;
+    public static final int ADVANCE = 7;
+    public static final int BUY_META = 8;
+
+    // Cabecera del formato serializado
+    private static final int MAGIC = 0x54585245; // "TXRE"
+    private static final int VERSION = 4;
+
+    // Límite de entradas para acotar la memoria de la grabación
+    private static final int MAX_EVENTS = 1_000_000;
+
+    // Tamaño máximo del estado inicial al leer una grabación, para rechazar ficheros dañados
+    private static final int MAX_INITIAL_STATE_BYTES = 1 << 20;
+
+    private byte[] initialState = new byte[0]; // Estado de la partida al empezar a grabar
+    private long[] times = new long[256];      // Instante de cada entrada
+    private byte[] types = new byte[256];      // Tipo de cada entrada
+    private long[] args = new long[256];       // Argumento de cada entrada (p. ej. índice de mejora)
+    private int size = 0;                      // Número de entradas grabadas
+    private boolean truncated = false;         // true si se alcanzó el límite de entradas
+
+    /**
+     * Empieza una grabación nueva tomando el estado actual del motor como punto de partida
+     * @param engine Motor cuyo estado se toma como inicial
+     */
+    void begin(GameEngine engine) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            engine.writeState(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        initialState = bytes.toByteArray();
+        size = 0;
+        truncated = false;
+    }
+
+    /**
+     * Registra una entrada
+     * @param time Instante de la entrada en milisegundos
+     * @param type Tipo de entrada
+     * @param arg  Argumento de la entrada
+     */
+    void record(long time, int type, long arg) {
+        if (size == MAX_EVENTS) {
+            truncated = true;
+            return;
+        }
+        if (size == times.length) {
+            int capacity = Math.min(MAX_EVENTS, size * 2);
+            times = Arrays.copyOf(times, capacity);
+            types = Arrays.copyOf(types, capacity);
+            args = Arrays.copyOf(args, capacity);
+        }
+        times[size] = time;
+        types[size] = (byte) type;
+        args[size] = arg;
+        size++;
+    }
+
+    /**
+     * Crea un motor con el estado inicial de la grabación
+     * @param clock Reloj que usará el motor
+     * @return Motor listo para reproducir las entradas
+     */
+    GameEngine createInitialEngine(GameClock clock) throws IOException {
+        GameEngine engine = new GameEngine(clock);
+        engine.readState(new DataInputStream(new ByteArrayInputStream(initialState)));
+        return engine;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public int getType(int index) {
+        return types[index];
+    }
+
+    public long getArg(int index) {
+        return args[index];
+    }
+
+    /**
+     * Indica si la grabación se cortó al alcanzar el límite de entradas
+     * En ese caso la reproducción no llega al estado final de la partida
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Serializa la grabación
+     * @param output Flujo de salida
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeBoolean(truncated);
+        out.writeInt(initialState.length);
+        out.write(initialState);
+        out.writeInt(size);
+        long previousTime = size > 0 ? times[0] : 0;
+        out.writeLong(previousTime);
+        for (int i = 0; i < size; i++) {
+            writeVarLong(out, times[i] - previousTime);
+            previousTime = times[i];
+            out.writeByte(types[i]);
+            writeVarLong(out, args[i]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Lee una grabación escrita con {@link #writeTo}
+     * @param input Flujo de entrada
+     * @return Grabación leída
+     */
+    public static InputRecorder readFrom(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+            throw new IOException("Formato de grabación no reconocido");
+        }
+        InputRecorder recorder = new InputRecorder();
+        recorder.truncated = in.readBoolean();
+        int stateLength = in.readInt();
+        if (stateLength < 0 || stateLength > MAX_INITIAL_STATE_BYTES) {
+            throw new IOException("Grabación dañada: tamaño del estado inicial no válido");
+        }
+        recorder.initialState = new byte[stateLength];
+        in.readFully(recorder.initialState);
+        int count = in.readInt();
+        if (count < 0 || count > MAX_EVENTS) {
+            throw new IOException("Grabación dañada: número de entradas no válido");
+        }
+        recorder.times = new long[Math.max(count, 1)];
+        recorder.types = new byte[Math.max(count, 1)];
+        recorder.args = new long[Math.max(count, 1)];
+        long time = in.readLong();
+        for (int i = 0; i < count; i++) {
+            time += readVarLong(in);
+            recorder.times[i] = time;
+            recorder.types[i] = in.readByte();
+            recorder.args[i] = readVarLong(in);
+        }
+        recorder.size = count;
+        return recorder;
+    }
+
+    /**
+     * Escribe un entero en grupos de 7 bits por byte (los negativos ocupan 10 bytes)
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Lee un entero escrito con {@link #writeVarLong}
+     */
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
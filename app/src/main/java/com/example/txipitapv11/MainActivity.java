@@ -2,30 +2,31 @@ package com.example.txipitapv11;
 
 import android.app.AlertDialog;
 import android.content.DialogInterface;
-import android.content.SharedPreferences;
 import android.graphics.Color;
+import android.net.Uri;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultCallback;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.crashlytics.buildtools.reloc.com.google.common.reflect.TypeToken;
-import com.google.gson.Gson;
-
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.NumberFormat;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Locale;
 
 /**
@@ -38,44 +39,45 @@ import java.util.Locale;
  * - Guardado y carga del estado del juego
  * - Interfaz de usuario y animaciones
  */
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements GameViewModel.Listener {
 
     // Elementos de la interfaz de usuario
     private ImageView octopusImage;         // Imagen del pulpo que se puede clicar
     private TextView pointsText;            // Texto que muestra los puntos actuales
     private TextView prestigeText;          // Texto que muestra el nivel de prestigio
+    private TextView pearlsText;            // Texto que muestra las perlas y abre el árbol de meta-mejoras
     private TextView generationInfoText;    // Texto que muestra información de generación de puntos
+    private TextView comboText;             // Texto que muestra el combo y los toques por segundo
     private Button prestigeButton;          // Botón para activar el prestigio
     private ImageView infoButton;           // Botón de información
     private RecyclerView upgradesRecyclerView; // Lista de mejoras disponibles
     private UpgradeAdapter upgradeAdapter;  // Adaptador para la lista de mejoras
     private ConstraintLayout mainLayout;    // Layout principal para animaciones
-
-    // Variables del estado del juego
-    private double points = 0;              // Puntos actuales (tinta)
-    private double pointsPerClick = 1;      // Puntos ganados por cada clic
-    private double pointsPerSecond = 0;     // Puntos ganados automáticamente por segundo
-    private int prestigeLevel = 0;          // Nivel de prestigio actual
-    private double prestigeMultiplier = 1.0; // Multiplicador de puntos por prestigio
-
-    private double prestigeRequirement = 5000; // Puntos necesarios para prestigiar
-
-    // Sistema de mejoras
-    private List<Upgrade> upgrades;         // Lista de mejoras disponibles
-
-    // Sistema de auto-clicker
-    private Handler autoClickHandler = new Handler(Looper.getMainLooper());
-    private Runnable autoClickRunnable;     // Tarea que se ejecuta periódicamente
-
-    // Constantes para el guardado de datos
-    private static final String PREFS_NAME = "ClickerGamePrefs";
-    private static final String KEY_POINTS = "points";
-    private static final String KEY_POINTS_PER_CLICK = "pointsPerClick";
-    private static final String KEY_POINTS_PER_SECOND = "pointsPerSecond";
-    private static final String KEY_PRESTIGE_LEVEL = "prestigeLevel";
-    private static final String KEY_PRESTIGE_MULTIPLIER = "prestigeMultiplier";
-    private static final String KEY_PRESTIGE_REQUIREMENT = "prestigeRequirement";
-    private static final String KEY_UPGRADES = "upgrades";
+    private ClickAnimationHelper clickAnimation; // Textos flotantes reutilizables de los clics
+    private SmoothInkCounter smoothCounter; // Contador de tinta interpolado entre ticks
+    private boolean smoothCounterEnabled;   // true si el contador se anima en cada fotograma
+
+    // Formatos reutilizados: se crean una vez por actividad, no en cada toque
+    private final NumberFormat numberFormat = createNumberFormat(0, true);
+    private final NumberFormat comboFormat = createNumberFormat(1, false);
+
+    // Valores con los que se construyeron los textos de generación y combo; solo se rehacen si cambian
+    private double shownPointsPerClick = Double.NaN;
+    private double shownInkPerSecond = Double.NaN;
+    private double shownTapBoost = Double.NaN;
+    private double shownInkBoost = Double.NaN;
+    private long shownComboTenths = -1;
+    private int shownPrestigeLevel = -1;
+    private long shownPearls = -1;
+    private int shownTapsPerSecond = -1;
+
+    // Lógica y estado del juego
+    private GameViewModel session;          // Sesión de juego que sobrevive a las rotaciones
+    private GameEngine engine;              // Motor con el estado de la partida
+
+    // Selectores de fichero para exportar e importar la partida
+    private ActivityResultLauncher<String> exportLauncher;
+    private ActivityResultLauncher<String[]> importLauncher;
 
     // Variable estática para acceder a los puntos desde otras clases
     private static double currentPoints = 0;
@@ -90,7 +92,7 @@ public class MainActivity extends AppCompatActivity {
 
     /**
      * Método que se ejecuta al crear la actividad
-     * Inicializa la interfaz y carga el estado del juego
+     * Inicializa la interfaz y se engancha a la sesión de juego (que carga el estado solo la primera vez)
      * @param savedInstanceState Estado guardado de la actividad
      */
     @Override
@@ -102,42 +104,72 @@ public class MainActivity extends AppCompatActivity {
         octopusImage = findViewById(R.id.octopusImage);
         pointsText = findViewById(R.id.pointsText);
         prestigeText = findViewById(R.id.prestigeText);
+        pearlsText = findViewById(R.id.pearlsText);
         generationInfoText = findViewById(R.id.generationInfoText);
+        comboText = findViewById(R.id.comboText);
         prestigeButton = findViewById(R.id.prestigeButton);
         infoButton = findViewById(R.id.infoButton);
         upgradesRecyclerView = findViewById(R.id.upgradesRecyclerView);
         mainLayout = findViewById(R.id.mainLayout);
+        clickAnimation = new ClickAnimationHelper(this, mainLayout);
+
+        // Cargar las imágenes reducidas al tamaño de sus vistas (en segundo plano y con caché)
+        BitmapLoader.load(octopusImage, R.drawable.logotxippi2, false);
+        BitmapLoader.load(infoButton, R.drawable.pulpo3, false);
 
         // Configuración del RecyclerView con un layout de cuadrícula de 2 columnas
         upgradesRecyclerView.setLayoutManager(new GridLayoutManager(this, 2));
 
-        // Cargar estado guardado (incluye mejoras)
-        loadGameState();
+        // Obtener la sesión de juego; tras un cambio de configuración es la misma instancia en memoria
+        session = new ViewModelProvider(this).get(GameViewModel.class);
+        session.setListener(this);
+        engine = session.getEngine();
 
-        // Si no hay mejoras guardadas, inicializar por primera vez
-        if (upgrades == null || upgrades.isEmpty()) {
-            initUpgrades();
-        }
+        // Contador de tinta fluido (opcional)
+        smoothCounter = new SmoothInkCounter(pointsText);
+        smoothCounterEnabled = session.isSmoothCounterEnabled();
 
         // Configuración del adaptador con listener para comprar mejoras
-        upgradeAdapter = new UpgradeAdapter(upgrades, new UpgradeAdapter.OnUpgradeClickListener() {
-            @Override
-            public void onUpgradeClick(Upgrade upgrade) {
-                buyUpgrade(upgrade);
-            }
-        });
-        upgradesRecyclerView.setAdapter(upgradeAdapter);
+        setUpgradeAdapter();
+
+        // Registro de los selectores de fichero (deben registrarse antes de que la actividad arranque)
+        exportLauncher = registerForActivityResult(new ActivityResultContracts.CreateDocument("application/octet-stream"),
+                new ActivityResultCallback<Uri>() {
+                    @Override
+                    public void onActivityResult(Uri uri) {
+                        if (uri != null) {
+                            exportGame(uri);
+                        }
+                    }
+                });
+        importLauncher = registerForActivityResult(new ActivityResultContracts.OpenDocument(),
+                new ActivityResultCallback<Uri>() {
+                    @Override
+                    public void onActivityResult(Uri uri) {
+                        if (uri != null) {
+                            importGame(uri);
+                        }
+                    }
+                });
 
         // Configuración del listener de clic en el pulpo
         octopusImage.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
+                // Respuesta sonora y háptica primero, para que la latencia no dependa de la interfaz
+                session.getTapFeedback().onTap(v);
+
                 // Añadir puntos y crear animación de clic
-                addPoints(pointsPerClick);
-                ClickAnimationHelper.createClickAnimation(MainActivity.this, mainLayout,
+                double clickPower = engine.tap();
+                updateUI();
+                String value = formatNumber(clickPower);
+                if (engine.isLastTapCritical()) {
+                    value += " ¡Crítico!";
+                }
+                clickAnimation.createClickAnimation(
                         v.getX() + v.getWidth() / 2,
                         v.getY() + v.getHeight() / 2,
-                        formatNumber(pointsPerClick));
+                        value);
             }
         });
 
@@ -155,13 +187,21 @@ public class MainActivity extends AppCompatActivity {
             public boolean onLongClick(View v) {
                 // Mostrar información del prestigio actual
                 Toast.makeText(MainActivity.this,
-                        "Multiplicador actual: x" + prestigeMultiplier +
-                                "\nRequisito para prestigio: " + formatNumber(prestigeRequirement) + " Tinta",
+                        "Multiplicador actual: x" + engine.getPrestigeMultiplier() +
+                                "\nRequisito para prestigio: " + formatNumber(engine.getPrestigeRequirement()) + " Tinta",
                         Toast.LENGTH_LONG).show();
                 return true;
             }
         });
 
+        // Configuración del texto de perlas para abrir el árbol de meta-mejoras
+        pearlsText.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showMetaDialog();
+            }
+        });
+
         // Configuración del botón de información
         infoButton.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -170,95 +210,22 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
-        // Iniciar el sistema de auto-clicker
-        startAutoClicker();
-
-        // Actualizar la interfaz inicial
+        // Actualizar la interfaz inicial (el auto-clicker se reanuda en onResume)
         updateUI();
     }
 
     /**
-     * Inicializa la lista de mejoras disponibles en el juego
-     * Cada mejora tiene un nombre, coste, factor de crecimiento, tipo y descripción
+     * Crea el adaptador de mejoras para la lista actual del motor
+     * Se llama al iniciar y cada vez que la lista de mejoras se reemplaza (prestigio o reinicio)
      */
-    private void initUpgrades() {
-        upgrades = new ArrayList<>();
-
-        // Mejoras de tipo CLICK (aumentan los puntos por clic)
-        upgrades.add(new Upgrade("Tinta Mejorada", 10, 1.2, Upgrade.Type.CLICK, "Aumenta el poder de clic en 1"));
-        upgrades.add(new Upgrade("Super Tinta Mejorada", 100, 1.5, Upgrade.Type.CLICK, "Aumenta mucho el poder de clic en 5"));
-
-        // Mejoras de tipo AUTO (generan puntos automáticamente)
-        upgrades.add(new Upgrade("Tinta Automática", 50, 1.3, Upgrade.Type.AUTO, "Añade 1 clic por segundo"));
-        upgrades.add(new Upgrade("M4-Tintosa Automatica", 200, 1.4, Upgrade.Type.AUTO, "Añade 5 clics por segundo"));
-        upgrades.add(new Upgrade("Fábrica de Tinta", 1000, 1.6, Upgrade.Type.AUTO, "Añade 10 clics por segundo"));
-
-        // Mejoras de tipo MULTIPLIER (multiplican todos los puntos)
-        upgrades.add(new Upgrade("Tinta Multiplicadora", 500, 2.0, Upgrade.Type.MULTIPLIER, "Multiplica todos tus puntos por 1.5"));
-    }
-
-    /**
-     * Carga el estado del juego desde las preferencias compartidas
-     * Incluye puntos, mejoras, nivel de prestigio y otros valores
-     */
-    private void loadGameState() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-
-        // Cargar puntos con manejo de errores
-        String savedPoints = prefs.getString(KEY_POINTS, "0.0");
-        try {
-            points = Double.parseDouble(savedPoints);
-        } catch (NumberFormatException e) {
-            points = 0.0;
-        }
-
-        // Cargar resto de valores numéricos
-        pointsPerClick = prefs.getFloat(KEY_POINTS_PER_CLICK, 1.0f);
-        pointsPerSecond = prefs.getFloat(KEY_POINTS_PER_SECOND, 0.0f);
-        prestigeLevel = prefs.getInt(KEY_PRESTIGE_LEVEL, 0);
-        prestigeMultiplier = prefs.getFloat(KEY_PRESTIGE_MULTIPLIER, 1.0f);
-        prestigeRequirement = prefs.getFloat(KEY_PRESTIGE_REQUIREMENT, 5000.0f);
-
-        // Cargar lista de mejoras usando Gson para deserializar JSON
-        Gson gson = new Gson();
-        String json = prefs.getString(KEY_UPGRADES, null);
-        Type type = new TypeToken<ArrayList<Upgrade>>() {}.getType();
-        upgrades = gson.fromJson(json, type);
-
-        // Asegurar que upgrades nunca sea null después de cargar
-        if (upgrades == null) {
-            upgrades = new ArrayList<>();
-        }
-
-        // Actualizar variable estática
-        currentPoints = points;
-    }
-
-    /**
-     * Guarda el estado actual del juego en las preferencias compartidas
-     * Incluye todos los valores importantes para restaurar el juego
-     */
-    private void saveGameState() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
-        SharedPreferences.Editor editor = prefs.edit();
-
-        // Guardar todos los valores del estado del juego
-        editor.putString(KEY_POINTS, String.valueOf(points));
-        editor.putFloat(KEY_POINTS_PER_CLICK, (float) pointsPerClick);
-        editor.putFloat(KEY_POINTS_PER_SECOND, (float) pointsPerSecond);
-        editor.putInt(KEY_PRESTIGE_LEVEL, prestigeLevel);
-        editor.putFloat(KEY_PRESTIGE_MULTIPLIER, (float) prestigeMultiplier);
-        editor.putFloat(KEY_PRESTIGE_REQUIREMENT, (float) prestigeRequirement);
-
-        // Guardar lista de mejoras usando Gson para serializar a JSON
-        if (upgrades != null) {
-            Gson gson = new Gson();
-            String json = gson.toJson(upgrades);
-            editor.putString(KEY_UPGRADES, json);
-        }
-
-        // Aplicar cambios
-        editor.commit();
+    private void setUpgradeAdapter() {
+        upgradeAdapter = new UpgradeAdapter(engine, new UpgradeAdapter.OnUpgradeClickListener() {
+            @Override
+            public void onUpgradeClick(Upgrade upgrade) {
+                buyUpgrade(upgrade);
+            }
+        });
+        upgradesRecyclerView.setAdapter(upgradeAdapter);
     }
 
     /**
@@ -266,60 +233,17 @@ public class MainActivity extends AppCompatActivity {
      * @param upgrade La mejora que se quiere comprar
      */
     private void buyUpgrade(Upgrade upgrade) {
-        if (points >= upgrade.getCurrentCost()) {
-            // Restar el coste y subir de nivel la mejora
-            points -= upgrade.getCurrentCost();
-            upgrade.levelUp();
-
-            // Aplicar los efectos de la mejora
-            applyUpgradeEffects(upgrade);
-
-            // Actualizar la interfaz y el adaptador
+        if (engine.buyUpgrade(engine.getUpgrades().indexOf(upgrade))) {
+            // Actualizar la interfaz y el adaptador (cambian el nivel y el coste)
+            upgradeAdapter.refresh();
             updateUI();
-            upgradeAdapter.notifyDataSetChanged();
 
             // Guardar inmediatamente después de la compra
-            saveGameState();
+            session.save();
         } else {
             // Mostrar mensaje si no hay suficientes puntos
             Toast.makeText(this, "¡No tienes suficientes Tinta!", Toast.LENGTH_SHORT).show();
         }
-        saveGameState();
-    }
-
-    /**
-     * Aplica los efectos de una mejora según su tipo
-     * @param upgrade La mejora cuyos efectos se van a aplicar
-     */
-    private void applyUpgradeEffects(Upgrade upgrade) {
-        switch (upgrade.getType()) {
-            case CLICK:
-                // Mejoras que aumentan los puntos por clic
-                if (upgrade.getName().equals("Tinta Mejorada")) {
-                    pointsPerClick += 1 * prestigeMultiplier;
-                } else if (upgrade.getName().equals("Super Tinta Mejorada")) {
-                    pointsPerClick += 5 * prestigeMultiplier;
-                }
-                break;
-            case AUTO:
-                // Mejoras que aumentan los puntos por segundo
-                if (upgrade.getName().equals("Tinta Automática")) {
-                    pointsPerSecond += 1 * prestigeMultiplier;
-                } else if (upgrade.getName().equals("M4-Tintosa Automatica")) {
-                    pointsPerSecond += 5 * prestigeMultiplier;
-                } else if (upgrade.getName().equals("Fábrica de Tinta")) {
-                    pointsPerSecond += 10 * prestigeMultiplier;
-                }
-                break;
-            case MULTIPLIER:
-                // Mejoras que multiplican todos los puntos
-                if (upgrade.getName().equals("Tinta Multiplicadora")) {
-                    pointsPerClick *= 1.5;
-                    pointsPerSecond *= 1.5;
-                }
-                break;
-        }
-        saveGameState();
     }
 
     /**
@@ -327,56 +251,72 @@ public class MainActivity extends AppCompatActivity {
      * Reinicia el progreso pero aumenta el multiplicador
      */
     private void prestige() {
-        if (points >= prestigeRequirement) {
-            // Aumentar nivel de prestigio y calcular nuevo multiplicador
-            prestigeLevel++;
-            prestigeMultiplier = 1.0 + (prestigeLevel * 0.5);
-
-            // Aumentar requisito para el próximo prestigio
-            prestigeRequirement *= 1.5;
-
-            // Reiniciar progreso con el nuevo multiplicador
-            points = 0;
-            pointsPerClick = 1 * prestigeMultiplier;
-            pointsPerSecond = 0;
-
-            // Reiniciar mejoras
-            initUpgrades();
-
-            // Actualizar adaptador de mejoras
-            upgradeAdapter = new UpgradeAdapter(upgrades, new UpgradeAdapter.OnUpgradeClickListener() {
-                @Override
-                public void onUpgradeClick(Upgrade upgrade) {
-                    buyUpgrade(upgrade);
-                }
-            });
-            upgradesRecyclerView.setAdapter(upgradeAdapter);
-
-            // Actualizar textos de la interfaz
-            pointsText.setText(formatNumber(points) + " Tinta");
-            prestigeText.setText("Prestigio: " + prestigeLevel);
-            generationInfoText.setText(formatNumber(pointsPerClick) + " tinta/clic | " +  formatNumber(pointsPerSecond) + " tinta/s");
+        // Calcular las perlas antes de prestigiar, ya que el prestigio reinicia los puntos
+        long pearls = engine.getPearlsForPrestige();
+        if (engine.prestige()) {
+            // Actualizar adaptador de mejoras con la lista reiniciada
+            setUpgradeAdapter();
 
-            // Ocultar botón de prestigio hasta alcanzar el nuevo requisito
-            prestigeButton.setVisibility(View.INVISIBLE);
+            // Actualizar textos de la interfaz y ocultar el botón hasta alcanzar el nuevo requisito
+            updateUI();
 
             // Guardar inmediatamente después del prestigio
-            saveGameState();
+            session.save();
 
             // Mostrar mensaje de éxito
-            Toast.makeText(this, "¡Prestigio conseguido! Multiplicador: x" + prestigeMultiplier +
-                            "\nPróximo prestigio: " + formatNumber(prestigeRequirement) + " Tinta",
+            Toast.makeText(this, "¡Prestigio conseguido! Multiplicador: x" + engine.getPrestigeMultiplier() +
+                            "\nPerlas ganadas: " + pearls +
+                            "\nPróximo prestigio: " + formatNumber(engine.getPrestigeRequirement()) + " Tinta",
                     Toast.LENGTH_LONG).show();
         }
     }
 
     /**
-     * Detiene el auto-clicker eliminando los callbacks pendientes
+     * Muestra el árbol de meta-mejoras que se compran con perlas
+     * Las meta-mejoras se conservan entre prestigios
      */
-    private void stopAutoClicker() {
-        if (autoClickRunnable != null) {
-            autoClickHandler.removeCallbacks(autoClickRunnable);
-        }
+    private void showMetaDialog() {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        View dialogView = getLayoutInflater().inflate(R.layout.dialog_meta, null);
+        builder.setView(dialogView);
+
+        // Obtener referencias a los elementos del diálogo
+        final TextView metaPearlsText = dialogView.findViewById(R.id.metaPearlsText);
+        RecyclerView metaRecyclerView = dialogView.findViewById(R.id.metaRecyclerView);
+        Button closeButton = dialogView.findViewById(R.id.metaCloseButton);
+
+        final AlertDialog dialog = builder.create();
+        metaPearlsText.setText("Perlas: " + engine.getPearls());
+
+        // Configurar la lista de nodos con listener para comprarlos
+        metaRecyclerView.setLayoutManager(new GridLayoutManager(this, 2));
+        final MetaNodeAdapter[] metaAdapter = new MetaNodeAdapter[1];
+        metaAdapter[0] = new MetaNodeAdapter(engine, new MetaNodeAdapter.OnMetaNodeClickListener() {
+            @Override
+            public void onMetaNodeClick(int node) {
+                if (engine.buyMetaNode(node)) {
+                    // Actualizar el diálogo y la interfaz con los nuevos modificadores
+                    metaPearlsText.setText("Perlas: " + engine.getPearls());
+                    metaAdapter[0].notifyDataSetChanged();
+                    upgradeAdapter.refresh();
+                    updateUI();
+
+                    // Guardar inmediatamente después de la compra
+                    session.save();
+                }
+            }
+        });
+        metaRecyclerView.setAdapter(metaAdapter[0]);
+
+        // Configurar botón de cierre
+        closeButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                dialog.dismiss();
+            }
+        });
+
+        dialog.show();
     }
 
     /**
@@ -391,11 +331,56 @@ public class MainActivity extends AppCompatActivity {
 
         // Obtener referencias a los elementos del diálogo
         TextView versionText = dialogView.findViewById(R.id.versionText);
+        CheckBox hapticsCheckBox = dialogView.findViewById(R.id.hapticsCheckBox);
+        CheckBox smoothCounterCheckBox = dialogView.findViewById(R.id.smoothCounterCheckBox);
+        Button exportButton = dialogView.findViewById(R.id.exportButton);
+        Button importButton = dialogView.findViewById(R.id.importButton);
         Button resetButton = dialogView.findViewById(R.id.resetButton);
         Button closeButton = dialogView.findViewById(R.id.closeButton);
 
         final AlertDialog dialog = builder.create();
 
+        // Configurar la opción de vibración al tocar
+        hapticsCheckBox.setChecked(session.isHapticsEnabled());
+        hapticsCheckBox.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                session.setHapticsEnabled(isChecked);
+            }
+        });
+
+        // Configurar la opción de contador fluido
+        smoothCounterCheckBox.setChecked(smoothCounterEnabled);
+        smoothCounterCheckBox.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                session.setSmoothCounterEnabled(isChecked);
+                smoothCounterEnabled = isChecked;
+                if (isChecked) {
+                    smoothCounter.start();
+                } else {
+                    smoothCounter.stop();
+                }
+                updateUI();
+            }
+        });
+
+        // Configurar botones de exportación e importación
+        exportButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                dialog.dismiss();
+                exportLauncher.launch("txipitap.sav");
+            }
+        });
+        importButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                dialog.dismiss();
+                importLauncher.launch(new String[]{"*/*"});
+            }
+        });
+
         // Configurar botón de reinicio
         resetButton.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -427,35 +412,57 @@ public class MainActivity extends AppCompatActivity {
         dialog.show();
     }
 
+    /**
+     * Exporta la partida al fichero elegido
+     * @param uri Fichero de destino
+     */
+    private void exportGame(Uri uri) {
+        try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+            if (out == null) {
+                throw new IOException("No se puede abrir el fichero");
+            }
+            session.exportGame(out);
+            Toast.makeText(this, "¡Partida exportada!", Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "Error al exportar: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    /**
+     * Importa la partida del fichero elegido y sustituye la actual
+     * @param uri Fichero de origen
+     */
+    private void importGame(Uri uri) {
+        try (InputStream in = getContentResolver().openInputStream(uri)) {
+            if (in == null) {
+                throw new IOException("No se puede abrir el fichero");
+            }
+            session.importGame(in);
+
+            // Actualizar adaptador de mejoras e interfaz con la partida importada
+            setUpgradeAdapter();
+            updateUI();
+            Toast.makeText(this, "¡Partida importada!", Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "Error al importar: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
     /**
      * Reinicia todas las estadísticas del juego a sus valores iniciales
      */
     private void resetGameStats() {
-        // Reiniciar todas las variables a sus valores iniciales
-        points = 0;
-        pointsPerClick = 1;
-        pointsPerSecond = 0;
-        prestigeLevel = 0;
-        prestigeMultiplier = 1.0;
-        prestigeRequirement = 5000;
+        // Reiniciar todas las variables y mejoras a sus valores iniciales
+        engine.reset();
 
-        // Reiniciar mejoras
-        initUpgrades();
+        // Actualizar adaptador de mejoras
+        setUpgradeAdapter();
 
         // Actualizar interfaz
         updateUI();
 
-        // Actualizar adaptador de mejoras
-        upgradeAdapter = new UpgradeAdapter(upgrades, new UpgradeAdapter.OnUpgradeClickListener() {
-            @Override
-            public void onUpgradeClick(Upgrade upgrade) {
-                buyUpgrade(upgrade);
-            }
-        });
-        upgradesRecyclerView.setAdapter(upgradeAdapter);
-
         // Guardar inmediatamente después del reinicio
-        saveGameState();
+        session.save();
 
         // Mostrar mensaje de confirmación
         Toast.makeText(this, "¡Estadísticas reiniciadas!", Toast.LENGTH_SHORT).show();
@@ -463,90 +470,49 @@ public class MainActivity extends AppCompatActivity {
 
     /**
      * Método llamado cuando la actividad entra en pausa
-     * Guarda el estado y detiene el auto-clicker
+     * Pausa y guarda la sesión, salvo si la actividad se recrea por un cambio de configuración
      */
     @Override
     protected void onPause() {
         super.onPause();
-        saveGameState();
-        stopAutoClicker();
-    }
-
-    /**
-     * Método llamado cuando la actividad se detiene
-     * Guarda el estado para asegurar la persistencia
-     */
-    @Override
-    protected void onStop() {
-        super.onStop();
-        // Guardar de nuevo cuando la app se detiene para asegurar la persistencia
-        saveGameState();
+        smoothCounter.stop();
+        if (!isChangingConfigurations()) {
+            session.pause();
+        }
     }
 
     /**
      * Método llamado cuando la actividad se destruye
-     * Realiza un guardado final del estado
+     * Se desengancha de la sesión, que sigue viva si la actividad se va a recrear
      */
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        // Guardado final cuando la app se destruye
-        saveGameState();
+        session.setListener(null);
     }
 
     /**
      * Método llamado cuando la actividad se reanuda
-     * Carga el estado, reinicia el auto-clicker y actualiza la interfaz
+     * Reanuda el auto-clicker de la sesión y actualiza la interfaz
      */
     @Override
     protected void onResume() {
         super.onResume();
-        loadGameState();
-        startAutoClicker();
+        session.resume();
+        if (smoothCounterEnabled) {
+            smoothCounter.start();
+        }
         updateUI();
-        saveGameState();
     }
 
     /**
-     * Añade puntos al contador y actualiza la interfaz
-     * @param amount Cantidad de puntos a añadir
+     * Método llamado por la sesión tras cada tick de producción automática
      */
-    private void addPoints(double amount) {
-        // Añadir puntos con el multiplicador de prestigio
-        points += amount * prestigeMultiplier;
-        pointsText.setText(formatNumber(points) + " Tinta");
+    @Override
+    public void onTick() {
+        // Actualizar color del texto y la interfaz
+        pointsText.setTextColor(Color.WHITE);
         updateUI();
-
-        // No guardar en cada clic para evitar problemas de rendimiento
-        // saveGameState() será llamado periódicamente por el auto-clicker
-        saveGameState();
-    }
-
-    /**
-     * Inicia el sistema de auto-clicker que genera puntos automáticamente
-     */
-    private void startAutoClicker() {
-        autoClickRunnable = new Runnable() {
-            @Override
-            public void run() {
-                // Añadir puntos automáticos cada segundo
-                points += pointsPerSecond * prestigeMultiplier;
-                pointsText.setText(formatNumber(points) + " Tinta");
-
-                // Guardar cada 5 segundos en lugar de cada segundo para reducir operaciones I/O
-                if (Math.random() < 0.2) {
-                    saveGameState();
-                }
-
-                // Actualizar color del texto y la interfaz
-                pointsText.setTextColor(Color.WHITE);
-                updateUI();
-
-                // Programar la próxima ejecución en 1 segundo
-                autoClickHandler.postDelayed(this, 1000);
-            }
-        };
-        autoClickHandler.postDelayed(autoClickRunnable, 1000);
     }
 
     /**
@@ -554,30 +520,80 @@ public class MainActivity extends AppCompatActivity {
      * con los valores actuales del juego
      */
     private void updateUI() {
+        double points = engine.getPoints();
+
         // Actualizar variable estática
         currentPoints = points;
 
-        // Actualizar texto de puntos
-        pointsText.setText(formatNumber(points) + " Tinta");
+        // Actualizar texto de puntos (el contador fluido interpola hasta el próximo tick)
+        if (smoothCounterEnabled) {
+            smoothCounter.commit(points, engine.getEffectiveInkPerSecond(),
+                    session.getLastTickNanos(), engine.getTickProducedMillis());
+        } else {
+            pointsText.setText(formatNumber(points) + " Tinta");
+        }
 
         // Actualizar texto de prestigio
-        prestigeText.setText("Prestigio: " + prestigeLevel);
+        if (engine.getPrestigeLevel() != shownPrestigeLevel) {
+            shownPrestigeLevel = engine.getPrestigeLevel();
+            prestigeText.setText("Prestigio: " + shownPrestigeLevel);
+        }
+
+        // Actualizar texto de perlas
+        if (engine.getPearls() != shownPearls) {
+            shownPearls = engine.getPearls();
+            pearlsText.setText("Perlas: " + shownPearls);
+        }
+
+        // Actualizar texto de información de generación (solo cambia con compras, prestigio y potenciadores)
+        double pointsPerClick = engine.getPointsPerClick();
+        double inkPerSecond = engine.getInkPerSecond();
+        double tapBoost = engine.getTapBoostMultiplier();
+        double inkBoost = engine.getInkBoostMultiplier();
+        if (pointsPerClick != shownPointsPerClick || inkPerSecond != shownInkPerSecond
+                || tapBoost != shownTapBoost || inkBoost != shownInkBoost) {
+            shownPointsPerClick = pointsPerClick;
+            shownInkPerSecond = inkPerSecond;
+            shownTapBoost = tapBoost;
+            shownInkBoost = inkBoost;
+            String infoText = formatNumber(pointsPerClick) + " tinta/clic | " +
+                    formatNumber(inkPerSecond) + " tinta/s";
+
+            // Añadir los multiplicadores de los potenciadores activos
+            if (tapBoost != 1.0) {
+                infoText += " | clic x" + tapBoost;
+            }
+            if (inkBoost != 1.0) {
+                infoText += " | tinta x" + inkBoost;
+            }
+            generationInfoText.setText(infoText);
+        }
 
-        // Actualizar texto de información de generación
-        String infoText = formatNumber(pointsPerClick) + " tinta/clic | " +
-                formatNumber(pointsPerSecond) + " tinta/s";
-        generationInfoText.setText(infoText);
+        // Mostrar el combo y el ritmo de toques mientras dure la racha (el texto solo se rehace si cambia)
+        double combo = engine.getComboMultiplier();
+        int tapsPerSecond = engine.getTapsPerSecond();
+        if (combo > 1.0 || tapsPerSecond > 0) {
+            long comboTenths = Math.round(combo * 10);
+            if (comboTenths != shownComboTenths || tapsPerSecond != shownTapsPerSecond) {
+                shownComboTenths = comboTenths;
+                shownTapsPerSecond = tapsPerSecond;
+                comboText.setText("Combo x" + comboFormat.format(combo) + " | " + tapsPerSecond + " toques/s");
+            }
+            comboText.setVisibility(View.VISIBLE);
+        } else {
+            comboText.setVisibility(View.INVISIBLE);
+        }
 
         // Mostrar u ocultar botón de prestigio según corresponda
-        if (points >= prestigeRequirement) {
+        if (points >= engine.getPrestigeRequirement()) {
             prestigeButton.setVisibility(View.VISIBLE);
         } else {
             prestigeButton.setVisibility(View.INVISIBLE);
         }
 
-        // Actualizar adaptador de mejoras si existe
+        // Actualizar solo las mejoras que pasan a ser asequibles o dejan de serlo
         if (upgradeAdapter != null) {
-            upgradeAdapter.notifyDataSetChanged();
+            upgradeAdapter.updateAffordability();
         }
     }
 
@@ -587,9 +603,20 @@ public class MainActivity extends AppCompatActivity {
      * @return Cadena formateada con separadores de miles
      */
     private String formatNumber(double number) {
-        NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.getDefault());
-        numberFormat.setGroupingUsed(true);
-        numberFormat.setMaximumFractionDigits(0); // Elimina los decimales
         return numberFormat.format(number);
     }
+
+    /**
+     * Crea un formato de números con la configuración regional actual
+     * @param fractionDigits Decimales que se muestran siempre
+     * @param grouping       true para separar los miles
+     * @return Formato nuevo
+     */
+    private static NumberFormat createNumberFormat(int fractionDigits, boolean grouping) {
+        NumberFormat format = NumberFormat.getNumberInstance(Locale.getDefault());
+        format.setGroupingUsed(grouping);
+        format.setMinimumFractionDigits(fractionDigits);
+        format.setMaximumFractionDigits(fractionDigits); // Sin decimales redondea al entero par más cercano, como el contador fluido
+        return format;
+    }
 }
\ No newline at end of file
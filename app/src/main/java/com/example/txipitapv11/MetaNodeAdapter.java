@@ -0,0 +1,110 @@
+package com.example.txipitapv11;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adaptador para mostrar los nodos del árbol de meta-mejoras en un RecyclerView.
+ * Reutiliza la vista de las mejoras normales.
+ */
+public class MetaNodeAdapter extends RecyclerView.Adapter<MetaNodeAdapter.MetaNodeViewHolder> {
+
+    private GameEngine engine;
+    private OnMetaNodeClickListener listener;
+
+    /**
+     * Interfaz para manejar clics en nodos del árbol.
+     */
+    public interface OnMetaNodeClickListener {
+        void onMetaNodeClick(int node);
+    }
+
+    public MetaNodeAdapter(GameEngine engine, OnMetaNodeClickListener listener) {
+        this.engine = engine;
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public MetaNodeViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.upgrade_item, parent, false);
+        return new MetaNodeViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MetaNodeViewHolder holder, int position) {
+        holder.bind(position, engine, listener);
+    }
+
+    @Override
+    public int getItemCount() {
+        return engine.getMetaTree().getNodeCount();
+    }
+
+    /**
+     * ViewHolder que representa un nodo del árbol.
+     */
+    static class MetaNodeViewHolder extends RecyclerView.ViewHolder {
+        TextView nodeName;
+        TextView nodeCost;
+        TextView nodeLevel;
+        Button buyButton;
+
+        public MetaNodeViewHolder(@NonNull View itemView) {
+            super(itemView);
+            nodeName = itemView.findViewById(R.id.upgradeName);
+            nodeCost = itemView.findViewById(R.id.upgradeCost);
+            nodeLevel = itemView.findViewById(R.id.upgradeLevel);
+            buyButton = itemView.findViewById(R.id.buyButton);
+        }
+
+        /**
+         * Asocia los datos de un nodo con la vista.
+         */
+        public void bind(final int node, GameEngine engine, final OnMetaNodeClickListener listener) {
+            final MetaTree tree = engine.getMetaTree();
+            nodeName.setText(tree.getName(node));
+            nodeCost.setText(tree.getCost(node) + " Perlas");
+            nodeLevel.setText("Nivel: " + tree.getLevel(node) + "/" + tree.getMaxLevel(node));
+
+            // Mostrar la descripción al mantener pulsado
+            itemView.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View v) {
+                    Toast.makeText(v.getContext(), tree.getDescription(node), Toast.LENGTH_SHORT).show();
+                    return true;
+                }
+            });
+
+            final boolean canBuy = tree.canBuy(node, engine.getPearls());
+            if (!tree.isUnlocked(node)) {
+                buyButton.setText("Bloqueado");
+            } else if (tree.getLevel(node) >= tree.getMaxLevel(node)) {
+                buyButton.setText("Máximo");
+            } else if (!canBuy) {
+                buyButton.setText("Perlas Insuficientes");
+            } else {
+                buyButton.setText("Mejorar");
+            }
+            buyButton.setAlpha(canBuy ? 1.0f : 0.5f);
+            buyButton.setEnabled(canBuy);
+
+            // Manejo de clic en botón de compra
+            buyButton.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    if (canBuy) {
+                        listener.onMetaNodeClick(node);
+                    }
+                }
+            });
+        }
+    }
+}
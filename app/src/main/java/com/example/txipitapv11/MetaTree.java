@@ -0,0 +1,184 @@
+package com.example.txipitapv11;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Árbol de meta-mejoras que se compran con perlas
+ *
+ * Las perlas se ganan al prestigiar y las meta-mejoras se conservan entre prestigios.
+ * Cada nodo puede depender de otros nodos. Cada vez que se compra un nodo, todos los
+ * efectos del árbol se pliegan en un vector de modificadores precalculado, de modo que
+ * el juego solo multiplica por constantes y nunca recorre el árbol en un tick o un toque.
+ */
+public class MetaTree {
+
+    // Índices del vector de modificadores
+    public static final int MOD_TAP = 0;          // Multiplicador del poder de clic
+    public static final int MOD_PRODUCTION = 1;   // Multiplicador de la tinta automática
+    public static final int MOD_COST = 2;         // Multiplicador del coste de las mejoras
+    private static final int MOD_COUNT = 3;
+
+    // Tipos de efecto de un nodo
+    private static final int EFFECT_TAP = 0;            // Multiplica el clic por el valor en cada nivel
+    private static final int EFFECT_PRODUCTION = 1;     // Multiplica la producción por el valor en cada nivel
+    private static final int EFFECT_COST = 2;           // Multiplica el coste por el valor en cada nivel
+    private static final int EFFECT_STARTING_LEVEL = 3; // Empieza cada prestigio con niveles de una mejora
+
+    // Definición de los nodos
+    private static final String[] NAMES = {
+            "Tinta Ancestral", "Ventosas Fuertes", "Regateo Marino",
+            "Herencia Entintada", "Cuna de Txipirones", "Marea Eterna"};
+    private static final String[] DESCRIPTIONS = {
+            "Multiplica la tinta automática por 1.25 en cada nivel",
+            "Multiplica el poder de clic por 1.5 en cada nivel",
+            "Reduce un 5% el coste de las mejoras en cada nivel",
+            "Empieza cada prestigio con un nivel más de Tinta Automática",
+            "Empieza cada prestigio con un Txipirón Entintador más",
+            "Duplica la tinta automática en cada nivel"};
+    private static final int[] EFFECTS = {
+            EFFECT_PRODUCTION, EFFECT_TAP, EFFECT_COST,
+            EFFECT_STARTING_LEVEL, EFFECT_STARTING_LEVEL, EFFECT_PRODUCTION};
+    private static final double[] VALUES = {1.25, 1.5, 0.95, 0, 0, 2.0};
+    private static final String[] STARTING_UPGRADES = {
+            null, null, null, "Tinta Automática", "Txipirón Entintador", null};
+    private static final long[] BASE_COSTS = {1, 1, 2, 3, 5, 10};
+    private static final int[] MAX_LEVELS = {10, 10, 10, 5, 5, 3};
+    private static final int[][] PREREQUISITES = {{}, {}, {0}, {0}, {3}, {2, 4}};
+
+    // Mejoras con las que empieza cada prestigio, para resolver los niveles iniciales por índice
+    private static final List<Upgrade> CATALOG = GameEngine.createDefaultUpgrades();
+
+    private final int[] levels = new int[NAMES.length];      // Nivel comprado de cada nodo
+    private final double[] modifiers = new double[MOD_COUNT]; // Efectos plegados de todo el árbol
+    private int[] startingLevels = new int[0];                // Niveles iniciales por índice de mejora
+
+    public MetaTree() {
+        recompute();
+    }
+
+    public int getNodeCount() {
+        return NAMES.length;
+    }
+
+    public String getName(int node) {
+        return NAMES[node];
+    }
+
+    public String getDescription(int node) {
+        return DESCRIPTIONS[node];
+    }
+
+    public int getLevel(int node) {
+        return levels[node];
+    }
+
+    public int getMaxLevel(int node) {
+        return MAX_LEVELS[node];
+    }
+
+    /**
+     * Calcula el coste en perlas del siguiente nivel de un nodo
+     * @return Coste del siguiente nivel
+     */
+    public long getCost(int node) {
+        return BASE_COSTS[node] * (levels[node] + 1);
+    }
+
+    /**
+     * Indica si se cumplen las dependencias de un nodo (cada nodo previo con al menos un nivel)
+     */
+    public boolean isUnlocked(int node) {
+        for (int prerequisite : PREREQUISITES[node]) {
+            if (levels[prerequisite] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica si un nodo se puede comprar con las perlas disponibles
+     */
+    public boolean canBuy(int node, long pearls) {
+        return isUnlocked(node) && levels[node] < MAX_LEVELS[node] && pearls >= getCost(node);
+    }
+
+    /**
+     * Sube un nivel un nodo sin comprobar el coste; el llamador descuenta las perlas
+     * @param node Nodo a subir
+     */
+    void levelUp(int node) {
+        levels[node]++;
+        recompute();
+    }
+
+    /**
+     * Obtiene un modificador precalculado
+     * @param index Índice del modificador (MOD_TAP, MOD_PRODUCTION o MOD_COST)
+     */
+    public double getModifier(int index) {
+        return modifiers[index];
+    }
+
+    /**
+     * Obtiene los niveles con los que empieza cada mejora tras un prestigio
+     * @return Niveles por índice en {@link GameEngine#createDefaultUpgrades()}
+     */
+    public int[] getStartingLevels() {
+        return startingLevels;
+    }
+
+    /**
+     * Pliega los efectos de todos los nodos en el vector de modificadores
+     * Solo se llama al comprar un nodo o al restaurar el árbol
+     */
+    private void recompute() {
+        Arrays.fill(modifiers, 1.0);
+        int[] starting = new int[CATALOG.size()];
+        for (int node = 0; node < NAMES.length; node++) {
+            int level = levels[node];
+            if (level == 0) {
+                continue;
+            }
+            switch (EFFECTS[node]) {
+                case EFFECT_TAP:
+                    modifiers[MOD_TAP] *= Math.pow(VALUES[node], level);
+                    break;
+                case EFFECT_PRODUCTION:
+                    modifiers[MOD_PRODUCTION] *= Math.pow(VALUES[node], level);
+                    break;
+                case EFFECT_COST:
+                    modifiers[MOD_COST] *= Math.pow(VALUES[node], level);
+                    break;
+                case EFFECT_STARTING_LEVEL:
+                    for (int i = 0; i < CATALOG.size(); i++) {
+                        if (CATALOG.get(i).getName().equals(STARTING_UPGRADES[node])) {
+                            starting[i] += level;
+                        }
+                    }
+                    break;
+            }
+        }
+        startingLevels = starting;
+    }
+
+    /**
+     * Obtiene los niveles de todos los nodos, para guardarlos
+     */
+    public int[] getLevels() {
+        return levels.clone();
+    }
+
+    /**
+     * Restaura los niveles guardados; los nodos que falten quedan a 0
+     * @param saved Niveles por nodo
+     */
+    public void setLevels(int[] saved) {
+        Arrays.fill(levels, 0);
+        for (int i = 0; i < saved.length && i < levels.length; i++) {
+            levels[i] = Math.max(0, Math.min(saved[i], MAX_LEVELS[i]));
+        }
+        recompute();
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.txipitapv11;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Exportación e importación de la partida en un único fichero
+ *
+ * El fichero empieza con una cabecera sin comprimir (identificador y versión del formato).
+ * Después viene un flujo comprimido de registros con tipo, cada uno con su tamaño,
+ * seguido del CRC32 de todos los registros. Se escribe y se lee registro a registro,
+ * sin construir el fichero entero en memoria.
+ *
+ * Compatibilidad: los cambios del formato solo añaden tipos de registro o campos al final
+ * de un registro. Un lector ignora los registros que no conoce y los campos que sobran, y
+ * al leer un registro antiguo los campos que faltan toman su valor por defecto. Por eso se
+ * aceptan ficheros de cualquier versión, también de las posteriores. Un cambio que no
+ * pueda expresarse así necesita otro identificador de formato. La importación se
+ * hace sobre un motor nuevo y solo se devuelve si el CRC coincide, de modo que un fichero
+ * dañado nunca estropea la partida en curso.
+ */
+public class SaveArchive {
+
+    // Cabecera del formato
+    private static final int MAGIC = 0x54585356; // "TXSV"
+    private static final int VERSION = 1;
+
+    // Tamaño máximo de un registro, para rechazar ficheros dañados sin reservar memoria de más
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    // Tipos de registro
+    private static final int RECORD_END = 0;         // Fin de los registros
+    private static final int RECORD_CORE = 1;        // Tinta, clic, producción y prestigio
+    private static final int RECORD_UPGRADE = 2;     // Una mejora (uno por mejora)
+    private static final int RECORD_GENERATORS = 3;  // Cantidades de generadores por nivel
+    private static final int RECORD_META = 4;        // Perlas y niveles del árbol de meta-mejoras
+    private static final int RECORD_BOOST = 5;       // Un potenciador activo (uno por potenciador)
+
+    /**
+     * Exporta el estado de la partida
+     * @param engine Motor cuyo estado se exporta
+     * @param output Flujo de salida; no se cierra
+     */
+    public static void write(GameEngine engine, OutputStream output) throws IOException {
+        DataOutputStream header = new DataOutputStream(output);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.flush();
+
+        // El compresor se libera al terminar, sin cerrar el flujo del llamador
+        Deflater compressor = new Deflater(Deflater.BEST_SPEED);
+        try {
+            writeRecords(engine, new DeflaterOutputStream(output, compressor, 8192));
+        } finally {
+            compressor.end();
+        }
+        output.flush();
+    }
+
+    /**
+     * Escribe los registros comprimidos seguidos del CRC
+     */
+    private static void writeRecords(GameEngine engine, DeflaterOutputStream deflater) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(deflater, crc));
+
+        // Cada registro se prepara en un búfer reutilizado para conocer su tamaño
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+        DataOutputStream record = new DataOutputStream(recordBytes);
+
+        record.writeDouble(engine.getPoints());
+        record.writeDouble(engine.getPointsPerClick());
+        record.writeDouble(engine.getPointsPerSecond());
+        record.writeInt(engine.getPrestigeLevel());
+        record.writeDouble(engine.getPrestigeMultiplier());
+        record.writeDouble(engine.getPrestigeRequirement());
+        writeRecord(out, RECORD_CORE, recordBytes);
+
+        for (Upgrade upgrade : engine.getUpgrades()) {
+            record.writeUTF(upgrade.getName());
+            record.writeDouble(upgrade.getBaseCost());
+            record.writeDouble(upgrade.getCostMultiplier());
+            record.writeUTF(upgrade.getType().name());
+            record.writeInt(upgrade.getLevel());
+            record.writeUTF(upgrade.getDescription());
+            writeRecord(out, RECORD_UPGRADE, recordBytes);
+        }
+
+        double[] counts = engine.getGenerators().getCounts();
+        record.writeInt(counts.length);
+        for (double count : counts) {
+            record.writeDouble(count);
+        }
+        writeRecord(out, RECORD_GENERATORS, recordBytes);
+
+        int[] metaLevels = engine.getMetaTree().getLevels();
+        record.writeLong(engine.getPearls());
+        record.writeInt(metaLevels.length);
+        for (int level : metaLevels) {
+            record.writeInt(level);
+        }
+        writeRecord(out, RECORD_META, recordBytes);
+
+        for (Boost boost : engine.getActiveBoosts()) {
+            record.writeUTF(boost.getKind().name());
+            record.writeDouble(boost.getFactor());
+            record.writeLong(boost.getDeadline() - engine.getGameTime());
+            writeRecord(out, RECORD_BOOST, recordBytes);
+        }
+
+        writeRecord(out, RECORD_END, recordBytes);
+
+        // El CRC va fuera de la suma de comprobación, al final del flujo comprimido
+        out.flush();
+        new DataOutputStream(deflater).writeLong(crc.getValue());
+        deflater.finish();
+    }
+
+    /**
+     * Escribe un registro con su tipo y tamaño, y vacía el búfer para el siguiente
+     */
+    private static void writeRecord(DataOutputStream out, int type, ByteArrayOutputStream recordBytes)
+            throws IOException {
+        out.writeByte(type);
+        out.writeInt(recordBytes.size());
+        recordBytes.writeTo(out);
+        recordBytes.reset();
+    }
+
+    /**
+     * Importa una partida exportada con {@link #write}
+     * @param input Flujo de entrada; no se cierra
+     * @param clock Reloj del motor que se crea
+     * @return Motor nuevo con la partida importada
+     * @throws IOException Si el fichero no es una partida o está dañado
+     */
+    public static GameEngine read(InputStream input, GameClock clock) throws IOException {
+        DataInputStream header = new DataInputStream(input);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("El fichero no es una partida guardada");
+        }
+        header.readUnsignedByte(); // Versión: cualquiera es legible (ver la compatibilidad arriba)
+
+        // El descompresor se libera al terminar, sin cerrar el flujo del llamador
+        Inflater decompressor = new Inflater();
+        try {
+            return readRecords(new InflaterInputStream(input, decompressor, 8192), clock);
+        } finally {
+            decompressor.end();
+        }
+    }
+
+    /**
+     * Lee los registros comprimidos, comprueba el CRC y crea el motor con la partida
+     */
+    private static GameEngine readRecords(InputStream inflater, GameClock clock) throws IOException {
+        // El búfer va por debajo del CRC: la suma solo cuenta los bytes de los registros, no el CRC final
+        BufferedInputStream inflated = new BufferedInputStream(inflater, 8192);
+        CRC32 crc = new CRC32();
+        DataInputStream in = new DataInputStream(new CheckedInputStream(inflated, crc));
+
+        // Valores por defecto de una partida nueva; cada registro sobrescribe los suyos
+        double points = 0;
+        double pointsPerClick = 1;
+        double pointsPerSecond = 0;
+        int prestigeLevel = 0;
+        double prestigeMultiplier = 1.0;
+        double prestigeRequirement = 5000;
+        boolean hasCore = false;
+        List<Upgrade> upgrades = new ArrayList<>();
+        double[] counts = new double[0];
+        long pearls = 0;
+        int[] metaLevels = new int[0];
+        List<Boost.Kind> boostKinds = new ArrayList<>();
+        List<Double> boostFactors = new ArrayList<>();
+        List<Long> boostDurations = new ArrayList<>();
+
+        while (true) {
+            int type = in.readUnsignedByte();
+            int length = in.readInt();
+            if (length < 0 || length > MAX_RECORD_BYTES) {
+                throw new IOException("Registro dañado en la partida");
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            if (type == RECORD_END) {
+                break;
+            }
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+            switch (type) {
+                case RECORD_CORE:
+                    // Los campos que un registro antiguo no trae conservan su valor por defecto
+                    points = checkAmount(record.readDouble());
+                    if (record.available() > 0) {
+                        pointsPerClick = checkAmount(record.readDouble());
+                    }
+                    if (record.available() > 0) {
+                        pointsPerSecond = checkAmount(record.readDouble());
+                    }
+                    if (record.available() > 0) {
+                        prestigeLevel = checkLevel(record.readInt());
+                    }
+                    if (record.available() > 0) {
+                        prestigeMultiplier = checkAmount(record.readDouble());
+                    }
+                    if (record.available() > 0) {
+                        prestigeRequirement = checkAmount(record.readDouble());
+                    }
+                    hasCore = true;
+                    break;
+                case RECORD_UPGRADE:
+                    String name = record.readUTF();
+                    double baseCost = checkAmount(record.readDouble());
+                    double costMultiplier = checkAmount(record.readDouble());
+                    String typeName = record.readUTF();
+                    int level = checkLevel(record.readInt());
+                    String description = record.readUTF();
+                    Upgrade.Type upgradeType = parseType(typeName);
+                    if (upgradeType != null) {
+                        Upgrade upgrade = new Upgrade(name, baseCost, costMultiplier, upgradeType, description);
+                        upgrade.setLevel(level);
+                        upgrades.add(upgrade);
+                    }
+                    break;
+                case RECORD_GENERATORS:
+                    counts = new double[checkCount(record.readInt(), length, 8)];
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] = checkAmount(record.readDouble());
+                    }
+                    break;
+                case RECORD_META:
+                    pearls = record.readLong();
+                    if (pearls < 0) {
+                        throw new IOException("Valor fuera de rango en la partida");
+                    }
+                    metaLevels = new int[checkCount(record.readInt(), length, 4)];
+                    for (int i = 0; i < metaLevels.length; i++) {
+                        metaLevels[i] = checkLevel(record.readInt());
+                    }
+                    break;
+                case RECORD_BOOST:
+                    Boost.Kind kind = parseKind(record.readUTF());
+                    double factor = checkAmount(record.readDouble());
+                    long remaining = record.readLong();
+                    if (kind != null && remaining > 0) {
+                        boostKinds.add(kind);
+                        boostFactors.add(factor);
+                        boostDurations.add(remaining);
+                    }
+                    break;
+                default:
+                    // Registro de una versión posterior compatible: se ignora
+                    break;
+            }
+        }
+
+        // Comprobar la integridad antes de tocar ningún motor
+        long expected = new DataInputStream(inflated).readLong();
+        if (expected != crc.getValue()) {
+            throw new IOException("La partida está dañada (la suma de comprobación no coincide)");
+        }
+        if (!hasCore) {
+            throw new IOException("La partida no contiene el estado principal");
+        }
+
+        GameEngine engine = new GameEngine(clock);
+        engine.restoreState(points, pointsPerClick, pointsPerSecond, prestigeLevel,
+                prestigeMultiplier, prestigeRequirement, upgrades);
+        engine.restoreMeta(pearls, metaLevels);
+        engine.getGenerators().setCounts(counts);
+        for (int i = 0; i < boostKinds.size(); i++) {
+            engine.startBoost(boostKinds.get(i), boostFactors.get(i), boostDurations.get(i));
+        }
+        return engine;
+    }
+
+    /**
+     * Comprueba que una cantidad leída es un número finito y no negativo
+     * Un valor negativo o NaN pasaría el CRC si el fichero se ha editado, y rompería costes y producción
+     */
+    private static double checkAmount(double value) throws IOException {
+        if (!(value >= 0) || Double.isInfinite(value)) {
+            throw new IOException("Valor fuera de rango en la partida");
+        }
+        return value;
+    }
+
+    /**
+     * Comprueba que un nivel leído no es negativo
+     */
+    private static int checkLevel(int level) throws IOException {
+        if (level < 0) {
+            throw new IOException("Valor fuera de rango en la partida");
+        }
+        return level;
+    }
+
+    /**
+     * Comprueba que una cantidad de elementos cabe en su registro
+     */
+    private static int checkCount(int count, int length, int bytesPerItem) throws IOException {
+        if (count < 0 || (long) count * bytesPerItem > length) {
+            throw new IOException("Registro dañado en la partida");
+        }
+        return count;
+    }
+
+    /**
+     * Convierte el nombre de un tipo de mejora; null si no existe en esta versión
+     */
+    private static Upgrade.Type parseType(String name) {
+        for (Upgrade.Type type : Upgrade.Type.values()) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Convierte el nombre de un tipo de potenciador; null si no existe en esta versión
+     */
+    private static Boost.Kind parseKind(String name) {
+        for (Boost.Kind kind : Boost.Kind.values()) {
+            if (kind.name().equals(name)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
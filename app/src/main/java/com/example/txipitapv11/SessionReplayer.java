@@ -0,0 +1,79 @@
+package com.example.txipitapv11;
+
+import java.io.IOException;
+
+/**
+ * Reproductor de partidas grabadas sin interfaz
+ *
+ * Aplica las entradas de un {@link InputRecorder} sobre un motor nuevo creado con
+ * el estado inicial de la grabación, tan rápido como sea posible. El reloj del motor
+ * avanza a saltos hasta el instante de cada entrada, así que el resultado es el mismo
+ * que en la partida original sin depender del tiempo real.
+ */
+public class SessionReplayer {
+
+    /**
+     * Reloj manual que solo avanza cuando lo indica el reproductor
+     */
+    private static class ReplayClock implements GameClock {
+        private long time;
+
+        @Override
+        public long now() {
+            return time;
+        }
+    }
+
+    /**
+     * Reproduce una grabación completa
+     * @param recording Grabación a reproducir
+     * @return Motor con el estado final de la partida
+     */
+    public static GameEngine replay(InputRecorder recording) throws IOException {
+        ReplayClock clock = new ReplayClock();
+        GameEngine engine = recording.createInitialEngine(clock);
+
+        for (int i = 0; i < recording.size(); i++) {
+            clock.time = recording.getTime(i);
+            apply(engine, recording.getType(i), recording.getArg(i));
+        }
+        return engine;
+    }
+
+    /**
+     * Aplica una entrada grabada sobre el motor
+     */
+    private static void apply(GameEngine engine, int type, long arg) {
+        switch (type) {
+            case InputRecorder.TAP:
+                engine.tap();
+                break;
+            case InputRecorder.BUY_UPGRADE:
+                engine.buyUpgrade((int) arg);
+                break;
+            case InputRecorder.PRESTIGE:
+                engine.prestige();
+                break;
+            case InputRecorder.TICK:
+                engine.tick();
+                break;
+            case InputRecorder.PAUSE:
+                engine.pause();
+                break;
+            case InputRecorder.RESUME:
+                engine.resume();
+                break;
+            case InputRecorder.RESET:
+                engine.reset();
+                break;
+            case InputRecorder.ADVANCE:
+                engine.advance(arg);
+                break;
+            case InputRecorder.BUY_META:
+                engine.buyMetaNode((int) arg);
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de entrada desconocido: " + type);
+        }
+    }
+}
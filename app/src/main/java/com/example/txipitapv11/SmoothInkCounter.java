@@ -0,0 +1,101 @@
+package com.example.txipitapv11;
+
+import android.view.Choreographer;
+import android.widget.TextView;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Contador de tinta que se redibuja en cada fotograma
+ *
+ * La simulación sigue sumando la producción una vez por segundo. Entre ticks, el
+ * contador muestra la tinta del último valor confirmado más lo que el ritmo actual
+ * produce desde el último tick, así que avanza de forma continua sin simular más a menudo.
+ * El instante del tick lo da la sesión, que lo marca al ejecutar el tick real; el contador
+ * nunca lo inventa, así que parar y volver a empezar no desplaza la interpolación.
+ * El texto solo se formatea cuando cambian las cifras visibles; en el resto de
+ * fotogramas no se reserva memoria ni se toca la vista.
+ */
+public class SmoothInkCounter implements Choreographer.FrameCallback {
+
+    // Nunca se interpola más de un tick, para no adelantarse a la simulación si el tick se retrasa
+    private static final long MAX_INTERPOLATION_NANOS = GameEngine.TICK_MILLIS * 1_000_000L;
+
+    private final TextView view;
+    private final NumberFormat numberFormat;
+
+    private double committedPoints;         // Tinta confirmada por el motor
+    private double rate;                    // Tinta por segundo con todos los multiplicadores
+    private long tickTimeNanos;             // Instante del último tick real (System.nanoTime)
+    private long producedAheadNanos;        // Parte del tick que la tinta confirmada ya incluye
+    private double shownValue = Double.NaN; // Cifras que muestra ahora el texto (NaN: ninguna)
+    private boolean running = false;
+
+    public SmoothInkCounter(TextView view) {
+        this.view = view;
+        numberFormat = NumberFormat.getNumberInstance(Locale.getDefault());
+        numberFormat.setGroupingUsed(true);
+        numberFormat.setMaximumFractionDigits(0);
+    }
+
+    /**
+     * Confirma la tinta actual del motor tras un tick, un toque o una compra
+     * @param points          Tinta del motor
+     * @param ratePerSecond   Tinta por segundo que se sumará en el próximo tick
+     * @param tickTimeNanos   Instante (System.nanoTime) del último tick, marcado por la sesión
+     * @param producedAheadMs Parte del tick en curso que una compra ya ha sumado a la tinta
+     */
+    public void commit(double points, double ratePerSecond, long tickTimeNanos, long producedAheadMs) {
+        committedPoints = points;
+        rate = ratePerSecond;
+        this.tickTimeNanos = tickTimeNanos;
+        producedAheadNanos = producedAheadMs * 1_000_000L;
+        show(System.nanoTime());
+    }
+
+    /**
+     * Empieza a redibujar en cada fotograma
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        shownValue = Double.NaN; // El texto pudo cambiar mientras estaba parado
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Deja de redibujar (actividad en pausa o modo fluido desactivado)
+     */
+    public void stop() {
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+        show(frameTimeNanos);
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Muestra la tinta interpolada en un instante, formateándola solo si cambian las cifras
+     * Redondea al entero par más cercano (Math.rint), igual que NumberFormat en el modo sin
+     * interpolar, para que cambiar de modo no mueva la cifra mostrada. El valor se queda en
+     * double: la tinta puede pasar con creces del máximo de un long
+     */
+    private void show(long nowNanos) {
+        long sinceTick = Math.min(nowNanos - tickTimeNanos, MAX_INTERPOLATION_NANOS);
+        long elapsed = Math.max(0, sinceTick - producedAheadNanos);
+        double value = Math.rint(committedPoints + rate * (elapsed / 1e9));
+        if (value != shownValue) {
+            shownValue = value;
+            view.setText(numberFormat.format(value) + " Tinta");
+        }
+    }
+}
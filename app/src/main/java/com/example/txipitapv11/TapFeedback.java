@@ -0,0 +1,107 @@
+package com.example.txipitapv11;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
+import android.os.SystemClock;
+import android.view.HapticFeedbackConstants;
+import android.view.View;
+
+/**
+ * Respuesta sonora y háptica al tocar el pulpo
+ *
+ * El sonido se carga una vez en un SoundPool y se reproduce con un número fijo de voces.
+ * Las voces se guardan en un anillo de enteros: cuando el anillo está lleno, la voz más
+ * antigua se corta para dejar sitio a la nueva. Los toques más seguidos que el intervalo
+ * mínimo se funden con el sonido anterior en lugar de encolarse, de modo que el trabajo
+ * por segundo tiene un límite fijo sea cual sea el ritmo de toques. Tocar no reserva
+ * memoria ni bloquea el hilo principal.
+ */
+public class TapFeedback {
+
+    private static final int MAX_VOICES = 4;                 // Voces simultáneas como máximo
+    private static final long MIN_SOUND_INTERVAL_MS = 30;    // Toques más seguidos se funden en un sonido
+    private static final long MIN_HAPTIC_INTERVAL_MS = 50;   // Toques más seguidos se funden en una vibración
+
+    private final SoundPool soundPool;
+    private final int tapSoundId;
+    private boolean loaded = false;             // true cuando el sonido está listo para reproducirse
+
+    private final int[] voices = new int[MAX_VOICES]; // Identificadores de las voces en reproducción
+    private int nextVoice = 0;                  // Posición del anillo que se ocupará (o robará) a continuación
+
+    private long lastSoundTime = -MIN_SOUND_INTERVAL_MS;
+    private long lastHapticTime = -MIN_HAPTIC_INTERVAL_MS;
+    private boolean hapticsEnabled;
+
+    /**
+     * Crea el motor de respuesta y precarga el sonido del toque
+     * @param context        Contexto de la aplicación
+     * @param hapticsEnabled true para vibrar al tocar
+     */
+    public TapFeedback(Context context, boolean hapticsEnabled) {
+        this.hapticsEnabled = hapticsEnabled;
+
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_GAME)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build();
+        soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_VOICES)
+                .setAudioAttributes(attributes)
+                .build();
+        soundPool.setOnLoadCompleteListener(new SoundPool.OnLoadCompleteListener() {
+            @Override
+            public void onLoadComplete(SoundPool pool, int sampleId, int status) {
+                loaded = status == 0;
+            }
+        });
+        tapSoundId = soundPool.load(context, R.raw.tap, 1);
+    }
+
+    public void setHapticsEnabled(boolean hapticsEnabled) {
+        this.hapticsEnabled = hapticsEnabled;
+    }
+
+    /**
+     * Reproduce la respuesta de un toque, o la funde con la anterior si llega demasiado pronto
+     * @param view Vista tocada, usada para la respuesta háptica
+     */
+    public void onTap(View view) {
+        long now = SystemClock.uptimeMillis();
+
+        if (now - lastSoundTime >= MIN_SOUND_INTERVAL_MS) {
+            lastSoundTime = now;
+            playVoice();
+        }
+
+        // La respuesta háptica del sistema respeta el ajuste de vibración táctil del usuario
+        if (hapticsEnabled && now - lastHapticTime >= MIN_HAPTIC_INTERVAL_MS) {
+            lastHapticTime = now;
+            view.performHapticFeedback(HapticFeedbackConstants.KEYBOARD_TAP);
+        }
+    }
+
+    /**
+     * Reproduce el sonido en la siguiente voz del anillo, cortando la más antigua si sigue sonando
+     */
+    private void playVoice() {
+        if (!loaded) {
+            return;
+        }
+        int oldest = voices[nextVoice];
+        if (oldest != 0) {
+            soundPool.stop(oldest);
+        }
+        voices[nextVoice] = soundPool.play(tapSoundId, 1.0f, 1.0f, 1, 0, 1.0f);
+        nextVoice = (nextVoice + 1) % MAX_VOICES;
+    }
+
+    /**
+     * Libera el SoundPool; no se puede volver a usar después
+     */
+    public void release() {
+        loaded = false;
+        soundPool.release();
+    }
+}
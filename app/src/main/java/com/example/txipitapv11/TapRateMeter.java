@@ -0,0 +1,61 @@
+package com.example.txipitapv11;
+
+/**
+ * Medidor de toques por segundo sobre una ventana deslizante
+ *
+ * Los instantes de los toques se guardan en un anillo de longs de tamaño fijo.
+ * Cada toque añade su instante y descarta por el otro extremo los que han salido
+ * de la ventana, así que el coste amortizado es O(1) y no se reserva memoria.
+ * El recuento es exacto mientras no haya más de {@link #CAPACITY} toques en una ventana.
+ */
+public class TapRateMeter {
+
+    public static final long WINDOW_MILLIS = 1000;   // Duración de la ventana de medida
+    public static final int CAPACITY = 64;           // Toques como máximo dentro de una ventana
+
+    private final long[] times = new long[CAPACITY]; // Instantes de los toques dentro de la ventana
+    private int head = 0;                            // Posición del toque más antiguo
+    private int count = 0;                           // Toques dentro de la ventana
+
+    /**
+     * Registra un toque
+     * @param now Instante del toque en milisegundos (no decreciente)
+     */
+    public void record(long now) {
+        evict(now);
+        if (count == CAPACITY) {
+            // Ventana llena: el toque más antiguo deja sitio al nuevo
+            head = (head + 1) % CAPACITY;
+            count--;
+        }
+        times[(head + count) % CAPACITY] = now;
+        count++;
+    }
+
+    /**
+     * Obtiene los toques de la última ventana, que equivalen a toques por segundo
+     * @param now Instante actual en milisegundos
+     */
+    public int getTapsPerSecond(long now) {
+        evict(now);
+        return count;
+    }
+
+    /**
+     * Vacía el medidor
+     */
+    public void reset() {
+        head = 0;
+        count = 0;
+    }
+
+    /**
+     * Descarta los toques que han salido de la ventana
+     */
+    private void evict(long now) {
+        while (count > 0 && now - times[head] >= WINDOW_MILLIS) {
+            head = (head + 1) % CAPACITY;
+            count--;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.txipitapv11;
+
+/**
+ * Rueda de temporizadores jerárquica
+ *
+ * Guarda temporizadores con una fecha de vencimiento en milisegundos repartidos en
+ * 4 niveles de 64 casillas: el nivel 0 tiene casillas de 1 ms, el nivel 1 de 64 ms,
+ * el nivel 2 de 4096 ms y el nivel 3 de 262144 ms. Añadir y cancelar son O(1)
+ * (listas doblemente enlazadas dentro de cada casilla) y al avanzar el tiempo los
+ * temporizadores bajan de nivel hasta vencer en orden. Los tramos sin temporizadores
+ * en los niveles bajos se saltan de golpe, así que avanzar horas cuesta pocas iteraciones.
+ */
+public class TimerWheel {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * Temporizador que puede programarse en la rueda
+     * Las clases que lo extienden añaden los datos propios del evento
+     */
+    public static class Timer {
+        private long deadline;      // Instante de vencimiento en milisegundos
+        private Timer prev;         // Anterior en la casilla
+        private Timer next;         // Siguiente en la casilla
+        private int level = -1;     // Nivel en el que está, o -1 si no está programado
+        private int slot;           // Casilla dentro del nivel
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+
+    /**
+     * Interfaz para recibir los temporizadores que vencen al avanzar la rueda
+     */
+    public interface ExpiryListener {
+        void onExpired(Timer timer, long deadline);
+    }
+
+    // Primer temporizador de cada casilla (cabeza de la lista enlazada)
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    private final int[] levelCounts = new int[LEVELS];
+    private long current;           // Último instante procesado
+    private int size = 0;           // Número de temporizadores programados
+
+    /**
+     * Constructor de la rueda
+     * @param startTime Instante inicial en milisegundos
+     */
+    public TimerWheel(long startTime) {
+        this.current = startTime;
+    }
+
+    public long getCurrentTime() {
+        return current;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Programa un temporizador. Si ya estaba programado se reprograma.
+     * Un vencimiento igual o anterior al instante actual vence en el siguiente milisegundo.
+     * @param timer    Temporizador a programar
+     * @param deadline Instante de vencimiento en milisegundos
+     */
+    public void schedule(Timer timer, long deadline) {
+        if (timer.isScheduled()) {
+            cancel(timer);
+        }
+        timer.deadline = Math.max(deadline, current + 1);
+        insert(timer);
+        size++;
+    }
+
+    /**
+     * Cancela un temporizador programado; si no lo estaba, no hace nada
+     * @param timer Temporizador a cancelar
+     */
+    public void cancel(Timer timer) {
+        if (!timer.isScheduled()) {
+            return;
+        }
+        unlink(timer);
+        size--;
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado, avisando de cada temporizador vencido
+     * Los temporizadores vencen en orden de vencimiento; el listener puede programar otros nuevos
+     * @param target   Instante hasta el que se avanza
+     * @param listener Receptor de los temporizadores vencidos
+     */
+    public void advanceTo(long target, ExpiryListener listener) {
+        while (current < target) {
+            if (size == 0) {
+                current = target;
+                return;
+            }
+
+            // Buscar el nivel más bajo con temporizadores; hasta su próxima frontera no ocurre nada
+            int lowest = 0;
+            while (levelCounts[lowest] == 0) {
+                lowest++;
+            }
+            long step = lowest == 0 ? current + 1 : (current | ((1L << (SLOT_BITS * lowest)) - 1)) + 1;
+            if (step > target) {
+                current = target;
+                return;
+            }
+            current = step;
+
+            // Bajar de nivel los temporizadores cuya casilla empieza en este instante
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((current & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, (int) ((current >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+
+            // Vencer los temporizadores de la casilla actual del nivel 0
+            int slot = (int) (current & SLOT_MASK);
+            Timer timer = slots[0][slot];
+            while (timer != null) {
+                Timer next = timer.next;
+                unlink(timer);
+                size--;
+                listener.onExpired(timer, timer.deadline);
+                timer = next;
+                if (timer != null && !isInSlot(timer, 0, slot)) {
+                    // El listener ha modificado la casilla; volver a empezar por su cabeza
+                    timer = slots[0][slot];
+                }
+            }
+        }
+    }
+
+    /**
+     * Vuelve a insertar los temporizadores de una casilla según el tiempo que les queda
+     */
+    private void cascade(int level, int slot) {
+        Timer timer = slots[level][slot];
+        slots[level][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            levelCounts[level]--;
+            timer.prev = null;
+            timer.next = null;
+            timer.level = -1;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    /**
+     * Coloca un temporizador en el nivel que corresponde a su distancia hasta el vencimiento
+     */
+    private void insert(Timer timer) {
+        long delta = timer.deadline - current;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        // Los vencimientos fuera del alcance de la rueda se aparcan en la última casilla del nivel alto
+        long position = Math.min(timer.deadline, current + (1L << (SLOT_BITS * LEVELS)) - 1);
+        int slot = (int) ((position >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        slots[level][slot] = timer;
+        levelCounts[level]++;
+    }
+
+    /**
+     * Quita un temporizador de su casilla
+     */
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        levelCounts[timer.level]--;
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+
+    private static boolean isInSlot(Timer timer, int level, int slot) {
+        return timer.level == level && timer.slot == slot;
+    }
+}
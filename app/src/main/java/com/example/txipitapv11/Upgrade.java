@@ -5,7 +5,7 @@ package com.example.txipitapv11;
  *
  * Cada mejora tiene un coste base que aumenta con cada nivel,
  * un tipo que determina su efecto, y una descripción para el usuario.
- * Las mejoras pueden ser de tipo CLICK, AUTO o MULTIPLIER.
+ * Las mejoras pueden ser de tipo CLICK, AUTO, MULTIPLIER, BOOST o GENERATOR.
  */
 public class Upgrade {
 
@@ -13,7 +13,7 @@ public class Upgrade {
     private String name;            // Nombre de la mejora
     private double baseCost;        // Coste base inicial
     private double costMultiplier;  // Multiplicador de coste por nivel
-    private Type type;              // Tipo de mejora (CLICK, AUTO, MULTIPLIER)
+    private Type type;              // Tipo de mejora (CLICK, AUTO, MULTIPLIER, BOOST, GENERATOR)
     private int level;              // Nivel actual de la mejora
     private String description;     // Descripción para mostrar al usuario
 
@@ -23,7 +23,9 @@ public class Upgrade {
     public enum Type {
         CLICK,
         AUTO,
-        MULTIPLIER
+        MULTIPLIER,
+        BOOST,
+        GENERATOR
     }
 
     /**
@@ -73,7 +75,7 @@ public class Upgrade {
 
     /**
      * Obtiene el tipo de mejora
-     * @return Tipo de mejora (CLICK, AUTO, MULTIPLIER)
+     * @return Tipo de mejora (CLICK, AUTO, MULTIPLIER, BOOST, GENERATOR)
      */
     public Type getType() {
         return type;
@@ -95,6 +97,15 @@ public class Upgrade {
         level++;
     }
 
+    /**
+     * Establece el nivel de la mejora directamente
+     * Útil al restaurar una partida guardada o grabada
+     * @param level Nivel a establecer
+     */
+    public void setLevel(int level) {
+        this.level = Math.max(0, level);
+    }
+
     /**
      * Reinicia el nivel de la mejora a 0
      * Útil cuando se realiza un prestigio
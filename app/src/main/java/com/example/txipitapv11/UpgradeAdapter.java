@@ -17,8 +17,10 @@ import java.util.List;
  */
 public class UpgradeAdapter extends RecyclerView.Adapter<UpgradeAdapter.UpgradeViewHolder> {
 
+    private GameEngine engine;
     private List<Upgrade> upgrades;
     private OnUpgradeClickListener listener;
+    private boolean[] affordable;           // Si cada mejora era asequible en la última actualización
 
     /**
      * Interfaz para manejar clics en mejoras.
@@ -27,9 +29,46 @@ public class UpgradeAdapter extends RecyclerView.Adapter<UpgradeAdapter.UpgradeV
         void onUpgradeClick(Upgrade upgrade);
     }
 
-    public UpgradeAdapter(List<Upgrade> upgrades, OnUpgradeClickListener listener) {
-        this.upgrades = upgrades;
+    public UpgradeAdapter(GameEngine engine, OnUpgradeClickListener listener) {
+        this.engine = engine;
+        this.upgrades = engine.getUpgrades();
         this.listener = listener;
+        this.affordable = new boolean[upgrades.size()];
+        computeAffordability();
+    }
+
+    /**
+     * Vuelve a dibujar todas las mejoras
+     * Se usa cuando cambian niveles o costes (compras y meta-mejoras)
+     */
+    public void refresh() {
+        computeAffordability();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Vuelve a dibujar solo las mejoras cuya asequibilidad ha cambiado con los puntos actuales
+     * Se llama en cada toque y en cada tick, así que no redibuja nada si no hay cambios
+     */
+    public void updateAffordability() {
+        double points = engine.getPoints();
+        for (int i = 0; i < affordable.length; i++) {
+            boolean canAfford = points >= engine.getUpgradeCost(upgrades.get(i));
+            if (canAfford != affordable[i]) {
+                affordable[i] = canAfford;
+                notifyItemChanged(i);
+            }
+        }
+    }
+
+    /**
+     * Calcula la asequibilidad de todas las mejoras sin notificar cambios
+     */
+    private void computeAffordability() {
+        double points = engine.getPoints();
+        for (int i = 0; i < affordable.length; i++) {
+            affordable[i] = points >= engine.getUpgradeCost(upgrades.get(i));
+        }
     }
 
     @NonNull
@@ -42,7 +81,7 @@ public class UpgradeAdapter extends RecyclerView.Adapter<UpgradeAdapter.UpgradeV
     @Override
     public void onBindViewHolder(@NonNull UpgradeViewHolder holder, int position) {
         Upgrade upgrade = upgrades.get(position);
-        holder.bind(upgrade, listener);
+        holder.bind(upgrade, engine, listener);
     }
 
     @Override
@@ -69,15 +108,17 @@ public class UpgradeAdapter extends RecyclerView.Adapter<UpgradeAdapter.UpgradeV
 
         /**
          * Asocia los datos de una mejora con la vista.
+         * El coste se muestra con el descuento de las meta-mejoras.
          */
-        public void bind(final Upgrade upgrade, final OnUpgradeClickListener listener) {
+        public void bind(final Upgrade upgrade, GameEngine engine, final OnUpgradeClickListener listener) {
+            double cost = engine.getUpgradeCost(upgrade);
             upgradeName.setText(upgrade.getName());
-            upgradeCost.setText(formatNumber(upgrade.getCurrentCost()) + " Tintas");
+            upgradeCost.setText(formatNumber(cost) + " Tintas");
             upgradeLevel.setText("Nivel: " + upgrade.getLevel());
 
             // Descripción hablada para accesibilidad
             itemView.setContentDescription(
-                    upgrade.getName() + ", costo: " + formatNumber(upgrade.getCurrentCost()) +
+                    upgrade.getName() + ", costo: " + formatNumber(cost) +
                             ", nivel actual: " + upgrade.getLevel()
             );
 
@@ -90,7 +131,7 @@ public class UpgradeAdapter extends RecyclerView.Adapter<UpgradeAdapter.UpgradeV
                 }
             });
 
-            boolean canAfford = MainActivity.getCurrentPoints() >= upgrade.getCurrentCost();
+            boolean canAfford = engine.getPoints() >= cost;
 
             updateButtonText(upgrade, canAfford);
             buyButton.setEnabled(canAfford);
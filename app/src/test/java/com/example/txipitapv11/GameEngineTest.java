@@ -0,0 +1,292 @@
+package com.example.txipitapv11;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la lógica del juego sin interfaz.
+ */
+public class GameEngineTest {
+
+    // Semilla cuyas primeras tiradas no son críticas, para que los toques sueltos valgan lo esperado
+    private static final long SEED = 42;
+
+    private long now = 0;
+
+    private final GameClock clock = new GameClock() {
+        @Override
+        public long now() {
+            return now;
+        }
+    };
+
+    private GameEngine createEngine(double points, double pointsPerSecond) {
+        GameEngine engine = new GameEngine(clock, SEED);
+        engine.restoreState(points, 1, pointsPerSecond, 0, 1.0, 5000, null);
+        return engine;
+    }
+
+    @Test
+    public void tick_withoutBoostsAddsPointsPerSecond() {
+        GameEngine engine = createEngine(0, 10);
+        engine.tick();
+        assertEquals(10.0, engine.getPoints(), 0);
+    }
+
+    @Test
+    public void boosts_stackAndExpireIndependently() {
+        GameEngine engine = createEngine(0, 10);
+        engine.startBoost(Boost.Kind.INK, 2.0, 30_000);
+        engine.startBoost(Boost.Kind.INK, 3.0, 10_000);
+        assertEquals(6.0, engine.getInkBoostMultiplier(), 0);
+
+        for (int i = 0; i < 10; i++) {
+            engine.tick();
+        }
+        assertEquals(2.0, engine.getInkBoostMultiplier(), 0);
+        assertEquals(600.0, engine.getPoints(), 1e-9);
+
+        for (int i = 0; i < 20; i++) {
+            engine.tick();
+        }
+        assertEquals(1.0, engine.getInkBoostMultiplier(), 0);
+        assertEquals(1000.0, engine.getPoints(), 1e-9);
+    }
+
+    @Test
+    public void boosts_expireFromAnyPositionKeepingActivationOrder() {
+        GameEngine engine = createEngine(0, 10);
+        engine.startBoost(Boost.Kind.INK, 2.0, 30_000);
+        engine.startBoost(Boost.Kind.TAP, 7.0, 5_000);
+        engine.startBoost(Boost.Kind.INK, 3.0, 20_000);
+
+        // Vence el del medio, luego el último y por fin el primero
+        engine.advance(5_000);
+        List<Boost> active = engine.getActiveBoosts();
+        assertEquals(2, active.size());
+        assertEquals(2.0, active.get(0).getFactor(), 0);
+        assertEquals(3.0, active.get(1).getFactor(), 0);
+        assertEquals(1.0, engine.getTapBoostMultiplier(), 0);
+
+        engine.advance(15_000);
+        assertEquals(1, engine.getActiveBoosts().size());
+        assertEquals(2.0, engine.getInkBoostMultiplier(), 0);
+
+        engine.startBoost(Boost.Kind.TAP, 7.0, 1_000);
+        engine.advance(10_000);
+        assertTrue(engine.getActiveBoosts().isEmpty());
+        assertEquals(1.0, engine.getInkBoostMultiplier(), 0);
+        assertEquals(1.0, engine.getTapBoostMultiplier(), 0);
+    }
+
+    @Test
+    public void advance_splitsOfflineIntervalAtEachExpiry() {
+        GameEngine engine = createEngine(0, 10);
+        engine.startBoost(Boost.Kind.INK, 2.0, 30_000);
+        engine.startBoost(Boost.Kind.INK, 7.0, 10_500);
+
+        // 10,5 s a x14, 19,5 s a x2 y el resto de la hora sin potenciadores
+        engine.advance(3_600_000);
+        double expected = 10 * (10.5 * 14 + 19.5 * 2 + (3600 - 30));
+        assertEquals(expected, engine.getPoints(), 1e-6);
+        assertTrue(engine.getActiveBoosts().isEmpty());
+    }
+
+    @Test
+    public void boughtBoost_lastsItsDurationFromThePurchaseInstant() {
+        GameEngine engine = createEngine(1000, 10);
+        now = 1000;
+        engine.tick();
+
+        // Comprado 400 ms después del tick: esos 400 ms van sin potenciador
+        now = 1400;
+        assertTrue(engine.buyUpgrade(indexOf(engine, "Chorro de Tinta")));
+        assertEquals(1000 + 10 + 4 - 300, engine.getPoints(), 1e-9);
+
+        for (now = 2000; now <= 31_000; now += 1000) {
+            engine.tick();
+        }
+        assertEquals(2.0, engine.getInkBoostMultiplier(), 0);
+
+        // Vence a los 31,4 s: 30 s exactos a x2 y los 600 ms restantes del último tick sin él
+        engine.tick();
+        assertEquals(1.0, engine.getInkBoostMultiplier(), 0);
+        assertEquals(1000 + 10 + 4 - 300 + 10 * 30 * 2 + 6, engine.getPoints(), 1e-9);
+    }
+
+    @Test
+    public void tap_doesNotAllocate() {
+        GameEngine engine = createEngine(0, 10);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // Calentar: combos, críticos y el medidor de ritmo ya en marcha
+        for (int i = 0; i < 20_000; i++) {
+            now += 50;
+            engine.tap();
+        }
+
+        // Medido: 0 bytes por toque, con JIT y sin él (-Xint); el margen cubre la propia medición
+        int taps = 100_000;
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < taps; i++) {
+            now += 50;
+            engine.tap();
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue("Bytes reservados en " + taps + " toques: " + allocated, allocated < taps);
+    }
+
+    private static int indexOf(GameEngine engine, String upgradeName) {
+        List<Upgrade> upgrades = engine.getUpgrades();
+        for (int i = 0; i < upgrades.size(); i++) {
+            if (upgrades.get(i).getName().equals(upgradeName)) {
+                return i;
+            }
+        }
+        throw new AssertionError(upgradeName);
+    }
+
+    @Test
+    public void tapBoost_multipliesClickPower() {
+        GameEngine engine = createEngine(0, 0);
+        engine.startBoost(Boost.Kind.TAP, 7.0, 10_000);
+        assertEquals(7.0, engine.tap(), 0);
+        assertEquals(7.0, engine.getPoints(), 0);
+    }
+
+    @Test
+    public void restoreState_addsUpgradesMissingFromOldSaves() {
+        GameEngine engine = new GameEngine(clock);
+        List<Upgrade> saved = new ArrayList<>();
+        saved.add(new Upgrade("Tinta Mejorada", 10, 1.2, Upgrade.Type.CLICK, "Aumenta el poder de clic en 1"));
+        engine.restoreState(0, 1, 0, 0, 1.0, 5000, saved);
+        assertEquals(GameEngine.createDefaultUpgrades().size(), engine.getUpgrades().size());
+    }
+
+    @Test
+    public void generators_feedTheTierBelow() {
+        GameEngine engine = createEngine(1_000_000, 0);
+        int viveros = -1;
+        for (int i = 0; i < engine.getUpgrades().size(); i++) {
+            if (engine.getUpgrades().get(i).getName().equals("Vivero de Txipirones")) {
+                viveros = i;
+            }
+        }
+        assertTrue(engine.buyUpgrade(viveros));
+        double pointsAfterPurchase = engine.getPoints();
+
+        // 1 vivero cría 0,5 txipirones/s; en el segundo tick los txipirones ya producen tinta
+        engine.tick();
+        assertEquals(0.5, engine.getGenerators().getCount(1), 0);
+        engine.tick();
+        assertEquals(pointsAfterPurchase + 1.0, engine.getPoints(), 1e-9);
+    }
+
+    @Test
+    public void prestige_awardsPearlsFromInk() {
+        GameEngine engine = createEngine(1_000_000, 0);
+        assertEquals(31, engine.getPearlsForPrestige());
+        assertTrue(engine.prestige());
+        assertEquals(31, engine.getPearls());
+        assertEquals(0, engine.getPoints(), 0);
+    }
+
+    @Test
+    public void buyMetaNode_requiresPrerequisitesAndPearls() {
+        GameEngine engine = createEngine(0, 0);
+        engine.restoreMeta(3, new int[0]);
+
+        // "Regateo Marino" depende de "Tinta Ancestral"
+        assertFalse(engine.buyMetaNode(2));
+        assertTrue(engine.buyMetaNode(0));
+        assertTrue(engine.buyMetaNode(2));
+        assertEquals(0, engine.getPearls());
+        assertFalse(engine.buyMetaNode(1));
+    }
+
+    @Test
+    public void restoreMeta_clampsNegativeLevels() {
+        GameEngine engine = createEngine(0, 10);
+        engine.restoreMeta(0, new int[]{-5, -1, -1});
+        assertArrayEquals(new int[engine.getMetaTree().getNodeCount()], engine.getMetaTree().getLevels());
+        assertFalse(engine.buyMetaNode(0));
+        assertEquals(0, engine.getPearls());
+    }
+
+    @Test
+    public void metaModifiers_applyToCostAndTap() {
+        GameEngine engine = createEngine(0, 0);
+        engine.restoreMeta(0, new int[]{1, 1, 2});
+        Upgrade upgrade = engine.getUpgrades().get(0);
+        assertEquals(upgrade.getCurrentCost() * 0.95 * 0.95, engine.getUpgradeCost(upgrade), 1e-9);
+        assertEquals(1.5, engine.tap(), 1e-9);
+    }
+
+    @Test
+    public void prestige_appliesStartingLevelsFromMetaTree() {
+        GameEngine engine = createEngine(5000, 0);
+        engine.restoreMeta(0, new int[]{1, 0, 0, 2});
+        assertTrue(engine.prestige());
+        for (Upgrade upgrade : engine.getUpgrades()) {
+            if (upgrade.getName().equals("Tinta Automática")) {
+                assertEquals(2, upgrade.getLevel());
+            }
+        }
+        assertTrue(engine.getPointsPerSecond() > 0);
+    }
+
+    @Test
+    public void tap_comboGrowsWithStreakAndResetsAfterPause() {
+        GameEngine engine = createEngine(0, 0);
+        double clickPower = 0;
+        for (int i = 0; i < 25; i++) {
+            now += 50;
+            clickPower = engine.tap();
+        }
+        if (engine.isLastTapCritical()) {
+            clickPower /= GameEngine.CRIT_MULTIPLIER;
+        }
+        assertEquals(1.2, clickPower, 1e-9);
+        assertEquals(1.2, engine.getComboMultiplier(), 1e-9);
+        assertEquals(20, engine.getTapsPerSecond());
+
+        // Una pausa más larga que el límite rompe el combo
+        now += GameEngine.COMBO_TIMEOUT_MILLIS + 1;
+        assertEquals(1.0, engine.getComboMultiplier(), 0);
+        assertEquals(0, engine.getTapsPerSecond());
+    }
+
+    @Test
+    public void tap_critsAreDeterministicForAFixedSeed() {
+        GameEngine first = createEngine(0, 0);
+        GameEngine second = createEngine(0, 0);
+        int crits = 0;
+        for (int i = 0; i < 10000; i++) {
+            now += 2000;
+            first.tap();
+            second.tap();
+            if (first.isLastTapCritical()) {
+                crits++;
+            }
+        }
+        assertEquals(first.stateChecksum(), second.stateChecksum());
+        assertTrue(crits > 400 && crits < 600);
+    }
+
+    @Test
+    public void effectiveInkPerSecond_matchesNextTick() {
+        GameEngine engine = createEngine(0, 10);
+        engine.startBoost(Boost.Kind.INK, 2.0, 30_000);
+        double rate = engine.getEffectiveInkPerSecond();
+        engine.tick();
+        assertEquals(20, rate, 0);
+        assertEquals(rate, engine.getPoints(), 1e-9);
+    }
+}
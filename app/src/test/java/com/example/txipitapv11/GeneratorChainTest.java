@@ -0,0 +1,64 @@
+package com.example.txipitapv11;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la cadena de generadores por niveles.
+ */
+public class GeneratorChainTest {
+
+    private static GeneratorChain createChain(int tiers) {
+        String[] names = new String[tiers];
+        double[] rates = new double[tiers];
+        for (int i = 0; i < tiers; i++) {
+            names[i] = "Nivel " + (i + 1);
+            rates[i] = 1.0 / (i + 1);
+        }
+        GeneratorChain chain = new GeneratorChain(names, rates);
+        for (int tier = 1; tier <= tiers; tier++) {
+            chain.add(tier, tier);
+        }
+        return chain;
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, Math.abs(expected) * 1e-9);
+    }
+
+    @Test
+    public void advance_closedFormMatchesStepByStep() {
+        GeneratorChain stepped = createChain(24);
+        GeneratorChain jumped = createChain(24);
+
+        double steppedInk = 0;
+        for (int i = 0; i < 500; i++) {
+            steppedInk += stepped.advance(GeneratorChain.STEP_MILLIS);
+        }
+        double jumpedInk = jumped.advance(500 * GeneratorChain.STEP_MILLIS);
+
+        assertClose(steppedInk, jumpedInk);
+        for (int tier = 1; tier <= 24; tier++) {
+            assertClose(stepped.getCount(tier), jumped.getCount(tier));
+        }
+    }
+
+    @Test
+    public void advance_keepsPartialStepsForNextAdvance() {
+        GeneratorChain chain = createChain(3);
+        assertEquals(0, chain.advance(600), 0);
+        assertTrue(chain.advance(400) > 0);
+    }
+
+    @Test
+    public void advance_thirtyDayCatchUpIsConstantTime() {
+        GeneratorChain chain = createChain(24);
+        long start = System.nanoTime();
+        double ink = chain.advance(30L * 24 * 60 * 60 * 1000);
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+
+        assertTrue(ink > 0 && !Double.isInfinite(ink));
+        assertTrue("La puesta al día ha tardado " + elapsedMicros + " µs", elapsedMicros < 50_000);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.txipitapv11;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la estimación de tinta del widget.
+ */
+public class InkEstimateTest {
+
+    @Test
+    public void pointsAt_extrapolatesLinearlyFromSave() {
+        assertEquals(1000 + 5 * 60, InkEstimate.pointsAt(1000, 5, 10_000, 70_000), 1e-9);
+        // Un reloj que retrocede no resta tinta
+        assertEquals(1000, InkEstimate.pointsAt(1000, 5, 70_000, 10_000), 0);
+    }
+
+    @Test
+    public void secondsUntil_handlesReachedAndIdleCases() {
+        assertEquals(0, InkEstimate.secondsUntil(6000, 0, 5000));
+        assertEquals(-1, InkEstimate.secondsUntil(100, 0, 5000));
+        assertEquals(491, InkEstimate.secondsUntil(95, 10, 5000));
+    }
+
+    @Test
+    public void formatDuration_usesTwoLargestUnits() {
+        assertEquals("30s", InkEstimate.formatDuration(30));
+        assertEquals("4m 10s", InkEstimate.formatDuration(250));
+        assertEquals("1h 5m", InkEstimate.formatDuration(3900));
+        assertEquals("2d 3h", InkEstimate.formatDuration(2 * 86400 + 3 * 3600 + 59));
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.txipitapv11;
+
+import android.content.Context;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.LooperMode;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Pruebas de carga de la actividad principal con el hilo principal en pausa y reloj simulado.
+ * Acotan el trabajo por toque y por tick para que una regresión rompa la compilación.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class MainActivityLoadTest {
+
+    private static final int TAPS_PER_SECOND = 20;
+    private static final long TAP_INTERVAL_MILLIS = 1000 / TAPS_PER_SECOND;
+
+    // Bytes que el código del juego puede reservar por toque, sin contar lo que el bucle del hilo
+    // principal de Robolectric reserva por sí solo en el mismo intervalo. Medido en la JVM
+    // (JDK 17): formatear la tinta y el valor del clic cuesta ~420 B por toque; antes, con tres
+    // NumberFormat nuevos y String.format en cada toque, ~6,9 KB. El presupuesto deja margen
+    // para setText y el reinicio de la animación, y sigue por debajo de lo que costaba el texto antes
+    private static final long MAX_ALLOCATED_BYTES_PER_TAP = 4 * 1024;
+
+    private ActivityController<MainActivity> controller;
+    private MainActivity activity;
+    private GameViewModel session;
+    private View octopusImage;
+    private ViewGroup mainLayout;
+    private int reboundItems = 0;           // Elementos del adaptador que se han pedido redibujar
+
+    @Before
+    public void setUp() {
+        // Partida con producción automática para que la tinta suba sola en los ticks
+        RuntimeEnvironment.getApplication()
+                .getSharedPreferences(GameStorage.PREFS_NAME, Context.MODE_PRIVATE)
+                .edit()
+                .putFloat("pointsPerSecond", 50f)
+                .commit();
+
+        controller = Robolectric.buildActivity(MainActivity.class).setup();
+        activity = controller.get();
+        session = new ViewModelProvider(activity).get(GameViewModel.class);
+        octopusImage = activity.findViewById(R.id.octopusImage);
+        mainLayout = activity.findViewById(R.id.mainLayout);
+
+        RecyclerView upgrades = activity.findViewById(R.id.upgradesRecyclerView);
+        final RecyclerView.Adapter<?> adapter = upgrades.getAdapter();
+        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                reboundItems += adapter.getItemCount();
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                reboundItems += itemCount;
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                reboundItems += itemCount;
+            }
+        });
+        idle(0);
+    }
+
+    @After
+    public void tearDown() {
+        controller.pause().stop().destroy();
+    }
+
+    @Test
+    public void tenMinutesOfTappingAtTwentyTapsPerSecond() {
+        int baseChildren = mainLayout.getChildCount();
+        int baseSaves = session.getSaveCount();
+        int taps = 10 * 60 * TAPS_PER_SECOND;
+
+        for (int i = 0; i < taps; i++) {
+            octopusImage.performClick();
+            idle(TAP_INTERVAL_MILLIS);
+            assertTrue(mainLayout.getChildCount() <= baseChildren + ClickAnimationHelper.MAX_FLOATING_TEXTS);
+        }
+
+        // Solo se guarda en el tick periódico, nunca por toque
+        int ticks = (int) (taps * TAP_INTERVAL_MILLIS / GameEngine.TICK_MILLIS);
+        assertTrue(session.getSaveCount() - baseSaves <= ticks / 5 + 1);
+
+        // Sin compras la tinta solo crece: cada mejora cambia de estado como mucho una vez
+        assertTrue(reboundItems <= session.getEngine().getUpgrades().size());
+    }
+
+    @Test
+    public void allocatedBytesPerTapStayBounded() {
+        // Calentar para que el anillo de textos y las cachés de la vista ya existan
+        for (int i = 0; i < 200; i++) {
+            octopusImage.performClick();
+            idle(TAP_INTERVAL_MILLIS);
+        }
+
+        int taps = 2000;
+        long before = allocatedBytes();
+        for (int i = 0; i < taps; i++) {
+            octopusImage.performClick();
+            idle(TAP_INTERVAL_MILLIS);
+        }
+        long tapping = allocatedBytes() - before;
+
+        // Lo que reserva el bucle de Robolectric en el mismo tiempo sin tocar (tras acabar las animaciones)
+        idle(2000);
+        before = allocatedBytes();
+        for (int i = 0; i < taps; i++) {
+            idle(TAP_INTERVAL_MILLIS);
+        }
+        long idling = allocatedBytes() - before;
+
+        long perTap = (tapping - idling) / taps;
+        assertTrue("Bytes reservados por toque: " + perTap + " (en reposo: " + idling / taps + ")",
+                perTap <= MAX_ALLOCATED_BYTES_PER_TAP);
+    }
+
+    @Test
+    public void hoursOfIdleTicks() {
+        int baseChildren = mainLayout.getChildCount();
+        int baseSaves = session.getSaveCount();
+        int hours = 2;
+
+        for (int minute = 0; minute < hours * 60; minute++) {
+            idle(60_000);
+        }
+
+        int ticks = (int) (hours * 3_600_000L / GameEngine.TICK_MILLIS);
+        assertTrue(session.getSaveCount() - baseSaves <= ticks / 5 + 1);
+        assertTrue(reboundItems <= session.getEngine().getUpgrades().size());
+        assertEquals(baseChildren, mainLayout.getChildCount());
+        assertTrue(session.getEngine().getPoints() >= 50.0 * (ticks - 1));
+    }
+
+    /**
+     * Avanza el reloj simulado y ejecuta todo lo programado en el hilo principal hasta ese instante
+     */
+    private static void idle(long millis) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(millis));
+    }
+
+    /**
+     * Bytes reservados hasta ahora por el hilo actual
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.txipitapv11;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la exportación e importación de partidas.
+ */
+public class SaveArchiveTest {
+
+    private final GameClock clock = new GameClock() {
+        @Override
+        public long now() {
+            return 0;
+        }
+    };
+
+    /**
+     * Crea una partida con mejoras, generadores, meta-mejoras y potenciadores
+     */
+    private GameEngine createPlayedEngine() {
+        GameEngine engine = new GameEngine(clock, 7);
+        engine.restoreState(5_000_000, 1, 10, 2, 2.0, 11250, null);
+        engine.restoreMeta(20, new int[]{2, 1, 1});
+        for (int i = 0; i < engine.getUpgrades().size(); i++) {
+            engine.buyUpgrade(i);
+        }
+        engine.tick();
+        return engine;
+    }
+
+    private byte[] export(GameEngine engine) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SaveArchive.write(engine, bytes);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Escribe a mano un fichero con la versión y los registros indicados
+     * @param records Pares de tipo de registro y contenido
+     */
+    private byte[] archive(int version, Object... records) throws IOException {
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(recordBytes);
+        for (int i = 0; i < records.length; i += 2) {
+            byte[] payload = (byte[]) records[i + 1];
+            out.writeByte((Integer) records[i]);
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+        out.writeByte(0);
+        out.writeInt(0);
+        CRC32 crc = new CRC32();
+        crc.update(recordBytes.toByteArray());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(0x54585356);
+        header.writeByte(version);
+        DataOutputStream deflated = new DataOutputStream(new DeflaterOutputStream(bytes));
+        recordBytes.writeTo(deflated);
+        deflated.writeLong(crc.getValue());
+        deflated.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Contenido de un registro principal con los valores indicados
+     */
+    private byte[] coreRecord(double... values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void import_restoresExportedGame() throws IOException {
+        GameEngine engine = createPlayedEngine();
+        GameEngine imported = SaveArchive.read(new ByteArrayInputStream(export(engine)), clock);
+
+        assertEquals(engine.getPoints(), imported.getPoints(), 0);
+        assertEquals(engine.getPointsPerClick(), imported.getPointsPerClick(), 0);
+        assertEquals(engine.getPrestigeLevel(), imported.getPrestigeLevel());
+        assertEquals(engine.getPearls(), imported.getPearls());
+        assertEquals(engine.getUpgrades().size(), imported.getUpgrades().size());
+        for (int i = 0; i < engine.getUpgrades().size(); i++) {
+            assertEquals(engine.getUpgrades().get(i).getLevel(), imported.getUpgrades().get(i).getLevel());
+        }
+        assertEquals(engine.getGenerators().stateChecksum(), imported.getGenerators().stateChecksum());
+        assertEquals(engine.getActiveBoosts().size(), imported.getActiveBoosts().size());
+        assertEquals(engine.getInkBoostMultiplier(), imported.getInkBoostMultiplier(), 0);
+        assertEquals(engine.getUpgradeCost(engine.getUpgrades().get(0)),
+                imported.getUpgradeCost(imported.getUpgrades().get(0)), 0);
+    }
+
+    @Test
+    public void import_rejectsCorruptedArchive() throws IOException {
+        byte[] archive = export(createPlayedEngine());
+        archive[archive.length / 2] ^= 0x10;
+        try {
+            SaveArchive.read(new ByteArrayInputStream(archive), clock);
+            fail("Se esperaba un error");
+        } catch (IOException e) {
+            // Esperado: CRC, flujo comprimido o registro dañado
+        }
+    }
+
+    @Test
+    public void import_rejectsOtherFiles() {
+        try {
+            SaveArchive.read(new ByteArrayInputStream(new byte[]{'{', '}', 0, 0, 0}), clock);
+            fail("Se esperaba un error");
+        } catch (IOException e) {
+            // Esperado
+        }
+    }
+
+    @Test
+    public void import_fillsFieldsMissingFromOlderRecords() throws IOException {
+        // Registro principal que solo trae tinta, tinta por clic y tinta por segundo
+        byte[] file = archive(1, 1, coreRecord(1234, 3, 8));
+        GameEngine imported = SaveArchive.read(new ByteArrayInputStream(file), clock);
+
+        assertEquals(1234, imported.getPoints(), 0);
+        assertEquals(3, imported.getPointsPerClick(), 0);
+        assertEquals(8, imported.getPointsPerSecond(), 0);
+        assertEquals(0, imported.getPrestigeLevel());
+        assertEquals(1.0, imported.getPrestigeMultiplier(), 0);
+        assertEquals(5000, imported.getPrestigeRequirement(), 0);
+    }
+
+    @Test
+    public void import_skipsUnknownRecordsAndFieldsFromNewerVersions() throws IOException {
+        // Versión posterior con un tipo de registro desconocido y un campo de más al final
+        byte[] core = coreRecord(1234, 3, 8);
+        ByteArrayOutputStream fullCore = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(fullCore);
+        out.write(core);
+        out.writeInt(2);
+        out.writeDouble(2.0);
+        out.writeDouble(11250);
+        out.writeLong(42); // Campo que esta versión no conoce
+        byte[] file = archive(9, 99, new byte[]{1, 2, 3, 4, 5}, 1, fullCore.toByteArray(), 99, new byte[0]);
+
+        GameEngine imported = SaveArchive.read(new ByteArrayInputStream(file), clock);
+        assertEquals(1234, imported.getPoints(), 0);
+        assertEquals(2, imported.getPrestigeLevel());
+        assertEquals(2.0, imported.getPrestigeMultiplier(), 0);
+        assertEquals(11250, imported.getPrestigeRequirement(), 0);
+    }
+
+    @Test
+    public void import_rejectsOutOfRangeValues() throws IOException {
+        ByteArrayOutputStream meta = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(meta);
+        out.writeLong(0);
+        out.writeInt(1);
+        out.writeInt(-5);
+
+        byte[][] files = {
+                archive(1, 1, coreRecord(-1, 1, 0)),
+                archive(1, 1, coreRecord(Double.NaN, 1, 0)),
+                archive(1, 1, coreRecord(0, 1, Double.POSITIVE_INFINITY)),
+                archive(1, 1, coreRecord(0, 1, 0), 4, meta.toByteArray()),
+        };
+        for (byte[] file : files) {
+            try {
+                SaveArchive.read(new ByteArrayInputStream(file), clock);
+                fail("Se esperaba un error");
+            } catch (IOException e) {
+                // Esperado: el CRC es correcto pero los valores no
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.txipitapv11;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la grabación y reproducción de partidas sin interfaz.
+ */
+public class SessionReplayerTest {
+
+    private long now = 0;
+
+    private final GameClock clock = new GameClock() {
+        @Override
+        public long now() {
+            return now;
+        }
+    };
+
+    /**
+     * Juega una sesión determinista con toques, ticks, compras, pausas y prestigios.
+     */
+    private void playSession(GameEngine engine) {
+        for (int i = 0; i < 20000; i++) {
+            now += 45;
+            engine.tap();
+            if (i % 20 == 0) {
+                engine.tick();
+            }
+            if (i % 7 == 0) {
+                engine.buyUpgrade(i % engine.getUpgrades().size());
+            }
+            if (i % 1000 == 999) {
+                engine.pause();
+                now += 60000;
+                engine.resume();
+            }
+            engine.prestige();
+        }
+    }
+
+    @Test
+    public void replay_reproducesFinalStateBitForBit() throws IOException {
+        GameEngine engine = new GameEngine(clock);
+        InputRecorder recorder = new InputRecorder();
+        engine.setRecorder(recorder);
+        playSession(engine);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        recorder.writeTo(bytes);
+        InputRecorder loaded = InputRecorder.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+        GameEngine replayed = SessionReplayer.replay(loaded);
+
+        assertFalse(loaded.isTruncated());
+        assertEquals(recorder.size(), loaded.size());
+        assertTrue(engine.getPrestigeLevel() > 0);
+        assertEquals(Double.doubleToLongBits(engine.getPoints()), Double.doubleToLongBits(replayed.getPoints()));
+        assertEquals(engine.stateChecksum(), replayed.stateChecksum());
+    }
+
+    @Test
+    public void replay_startsFromStateAtBeginningOfRecording() throws IOException {
+        GameEngine engine = new GameEngine(clock);
+        engine.restoreState(123456, 7, 3, 2, 2.0, 11250, GameEngine.createDefaultUpgrades());
+        engine.getUpgrades().get(2).setLevel(4);
+
+        InputRecorder recorder = new InputRecorder();
+        engine.setRecorder(recorder);
+        engine.tick();
+        engine.buyUpgrade(2);
+
+        GameEngine replayed = SessionReplayer.replay(recorder);
+        assertEquals(5, replayed.getUpgrades().get(2).getLevel());
+        assertEquals(engine.stateChecksum(), replayed.stateChecksum());
+    }
+
+    @Test
+    public void replay_matchesWhenClockAdvancesOnEveryRead() throws IOException {
+        // Reloj real simulado: cada lectura puede caer en un milisegundo distinto
+        GameClock drifting = new GameClock() {
+            @Override
+            public long now() {
+                return now++;
+            }
+        };
+        GameEngine engine = new GameEngine(drifting);
+        InputRecorder recorder = new InputRecorder();
+        engine.setRecorder(recorder);
+        for (int i = 0; i < 2000; i++) {
+            now += 37;
+            engine.tap();
+            if (i % 25 == 0) {
+                engine.tick();
+            }
+            if (i % 40 == 0) {
+                engine.buyUpgrade(i % engine.getUpgrades().size());
+            }
+        }
+
+        GameEngine replayed = SessionReplayer.replay(recorder);
+        assertEquals(engine.stateChecksum(), replayed.stateChecksum());
+    }
+
+    @Test
+    public void readFrom_rejectsCorruptSizesWithIOException() throws IOException {
+        GameEngine engine = new GameEngine(clock);
+        InputRecorder recorder = new InputRecorder();
+        engine.setRecorder(recorder);
+        engine.tap();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        recorder.writeTo(bytes);
+        byte[] valid = bytes.toByteArray();
+
+        // Cabecera: MAGIC (4), VERSION (1), truncated (1), tamaño del estado inicial (4)
+        byte[] negativeState = valid.clone();
+        negativeState[6] = (byte) 0xFF;
+        assertRejected(negativeState);
+
+        // Número de entradas justo después del estado inicial
+        int stateLength = ((valid[6] & 0xFF) << 24) | ((valid[7] & 0xFF) << 16)
+                | ((valid[8] & 0xFF) << 8) | (valid[9] & 0xFF);
+        byte[] hugeCount = valid.clone();
+        hugeCount[10 + stateLength] = (byte) 0x7F;
+        assertRejected(hugeCount);
+
+        // Fichero cortado a la mitad
+        assertRejected(Arrays.copyOf(valid, valid.length / 2));
+    }
+
+    private static void assertRejected(byte[] recording) {
+        try {
+            InputRecorder.readFrom(new ByteArrayInputStream(recording));
+            fail("Se esperaba IOException");
+        } catch (IOException e) {
+            // Esperado
+        }
+    }
+}
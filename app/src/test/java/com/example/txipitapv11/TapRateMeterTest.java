@@ -0,0 +1,35 @@
+package com.example.txipitapv11;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del medidor de toques por segundo.
+ */
+public class TapRateMeterTest {
+
+    @Test
+    public void getTapsPerSecond_isExactAtHighRates() {
+        TapRateMeter meter = new TapRateMeter();
+        long now = 0;
+        // 25 toques por segundo durante 3 segundos
+        for (int i = 0; i < 75; i++) {
+            now += 40;
+            meter.record(now);
+            if (now >= TapRateMeter.WINDOW_MILLIS) {
+                assertEquals(25, meter.getTapsPerSecond(now));
+            }
+        }
+        assertEquals(0, meter.getTapsPerSecond(now + TapRateMeter.WINDOW_MILLIS));
+    }
+
+    @Test
+    public void record_dropsOldestWhenWindowIsFull() {
+        TapRateMeter meter = new TapRateMeter();
+        for (int i = 0; i < TapRateMeter.CAPACITY + 10; i++) {
+            meter.record(i);
+        }
+        assertEquals(TapRateMeter.CAPACITY, meter.getTapsPerSecond(TapRateMeter.CAPACITY + 10));
+    }
+}
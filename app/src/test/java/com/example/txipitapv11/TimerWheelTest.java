@@ -0,0 +1,72 @@
+package com.example.txipitapv11;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la rueda de temporizadores jerárquica.
+ */
+public class TimerWheelTest {
+
+    @Test
+    public void advanceTo_expiresTimersInDeadlineOrderAtExactTime() {
+        TimerWheel wheel = new TimerWheel(1000);
+        Random random = new Random(42);
+        List<TimerWheel.Timer> cancelled = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            TimerWheel.Timer timer = new TimerWheel.Timer();
+            // Vencimientos desde milisegundos hasta más allá del alcance de la rueda (~4,6 horas)
+            long delay = 1 + (long) (Math.pow(random.nextDouble(), 4) * 40_000_000L);
+            wheel.schedule(timer, 1000 + delay);
+            if (i % 10 == 0) {
+                cancelled.add(timer);
+            }
+        }
+        for (TimerWheel.Timer timer : cancelled) {
+            wheel.cancel(timer);
+        }
+
+        final long[] last = {0};
+        final int[] expired = {0};
+        TimerWheel.ExpiryListener listener = new TimerWheel.ExpiryListener() {
+            @Override
+            public void onExpired(TimerWheel.Timer timer, long deadline) {
+                assertTrue(deadline >= last[0]);
+                assertFalse(timer.isScheduled());
+                last[0] = deadline;
+                expired[0]++;
+            }
+        };
+
+        // Avanzar en saltos irregulares y comprobar que nada vence antes de tiempo
+        long now = 1000;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(500_000);
+            wheel.advanceTo(now, listener);
+            assertEquals(now, wheel.getCurrentTime());
+            assertTrue(last[0] <= now);
+        }
+        assertEquals(2000 - cancelled.size(), expired[0]);
+    }
+
+    @Test
+    public void cancel_preventsExpiry() {
+        TimerWheel wheel = new TimerWheel(0);
+        TimerWheel.Timer timer = new TimerWheel.Timer();
+        wheel.schedule(timer, 5000);
+        wheel.cancel(timer);
+        assertEquals(0, wheel.size());
+
+        wheel.advanceTo(10_000, new TimerWheel.ExpiryListener() {
+            @Override
+            public void onExpired(TimerWheel.Timer t, long deadline) {
+                fail("El temporizador cancelado no debe vencer");
+            }
+        });
+    }
+}